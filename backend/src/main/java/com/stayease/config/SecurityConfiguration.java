@@ -1,7 +1,18 @@
 package com.stayease.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stayease.security.BCryptCostCalibrator;
 import com.stayease.security.CustomAuthenticationEntryPoint;
+import com.stayease.security.IdempotencyFilter;
+import com.stayease.security.IdempotencyStore;
+import com.stayease.security.JwtAuthenticationFilter;
+import com.stayease.security.JwtTokenProvider;
+import com.stayease.security.PrincipalCache;
+import com.stayease.security.RateLimitFilter;
+import com.stayease.security.RateLimiter;
+import com.stayease.shared.util.SingleFlight;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -13,10 +24,12 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -30,14 +43,39 @@ public class SecurityConfiguration {
 
     /**
      * CRITICAL: PasswordEncoder bean must be defined FIRST
+     *
+     * The BCrypt cost is calibrated at startup to the target hash latency; hashes with a
+     * lower cost are reported by upgradeEncoding and replaced on the next successful login.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.password.target-hash-ms:250}") long targetHashMillis,
+            @Value("${app.security.password.min-cost:10}") int minCost,
+            @Value("${app.security.password.max-cost:14}") int maxCost) {
+        return new BCryptPasswordEncoder(BCryptCostCalibrator.calibrate(targetHashMillis, minCost, maxCost));
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(
+            HttpSecurity http,
+            ObjectMapper objectMapper,
+            JwtTokenProvider jwtTokenProvider,
+            PrincipalCache principalCache,
+            RateLimiter rateLimiter,
+            IdempotencyStore idempotencyStore,
+            SingleFlight<String, IdempotencyStore.Entry> idempotencySingleFlight,
+            @Value("${app.security.jwt.verified-cache.max-size:10000}") long verifiedTokenCacheSize,
+            @Value("${app.security.jwt.verified-cache.ttl-seconds:60}") long verifiedTokenCacheTtlSeconds,
+            @Value("${app.security.idempotency.paths:/api/bookings,/api/payments}") List<String> idempotentPaths,
+            @Value("${app.security.idempotency.max-body-bytes:65536}") int idempotencyMaxBodyBytes,
+            @Value("${app.security.idempotency.max-request-bytes:1048576}") int idempotencyMaxRequestBytes) throws Exception {
+        JwtAuthenticationFilter jwtAuthenticationFilter = new JwtAuthenticationFilter(
+                jwtTokenProvider, principalCache, verifiedTokenCacheSize, Duration.ofSeconds(verifiedTokenCacheTtlSeconds));
+        RateLimitFilter rateLimitFilter = new RateLimitFilter(rateLimiter, objectMapper);
+        IdempotencyFilter idempotencyFilter = new IdempotencyFilter(
+                idempotencyStore, idempotencySingleFlight, idempotentPaths, idempotencyMaxBodyBytes,
+                idempotencyMaxRequestBytes, objectMapper);
+
         http
             .csrf(AbstractHttpConfigurer::disable)
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
@@ -45,10 +83,12 @@ public class SecurityConfiguration {
             .authorizeHttpRequests(auth -> auth
                 // Public endpoints - Allow all listing reads without authentication
                 .requestMatchers(HttpMethod.GET, "/api/listings/**").permitAll()
+                .requestMatchers(HttpMethod.POST, "/api/listings/quotes").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/services/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/reviews/**").permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/error").permitAll()
                 
                 // Admin endpoints
@@ -62,6 +102,12 @@ public class SecurityConfiguration {
             //     .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter()))
             //     .authenticationEntryPoint(customAuthenticationEntryPoint)
             // )
+            // Locally issued HS256 tokens, see JwtTokenProvider
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            // Throttle after authentication so users are limited by publicId, anonymous clients by IP
+            .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
+            // Replay stored responses of retried POSTs carrying an Idempotency-Key
+            .addFilterAfter(idempotencyFilter, RateLimitFilter.class)
             .exceptionHandling(ex -> ex
                 .authenticationEntryPoint(customAuthenticationEntryPoint)
             );
@@ -87,7 +133,7 @@ public class SecurityConfiguration {
         configuration.setAllowedOrigins(List.of("http://localhost:4200", "http://localhost:8080"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(List.of("*"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Link", "X-Total-Count"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Link", "X-Total-Count", IdempotencyFilter.REPLAYED_HEADER));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
@@ -0,0 +1,29 @@
+package com.stayease.config;
+
+import com.stayease.domain.user.dto.UserDTO;
+import com.stayease.security.IdempotencyStore;
+import com.stayease.shared.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.UUID;
+
+@Configuration
+public class SingleFlightConfiguration {
+
+    @Bean
+    public SingleFlight<UUID, UserDTO> userSingleFlight(MeterRegistry meterRegistry) {
+        return new SingleFlight<>("user", meterRegistry);
+    }
+
+    @Bean
+    public SingleFlight<String, UserDTO> oauthProvisioningSingleFlight(MeterRegistry meterRegistry) {
+        return new SingleFlight<>("oauth-provisioning", meterRegistry);
+    }
+
+    @Bean
+    public SingleFlight<String, IdempotencyStore.Entry> idempotencySingleFlight(MeterRegistry meterRegistry) {
+        return new SingleFlight<>("idempotency", meterRegistry);
+    }
+}
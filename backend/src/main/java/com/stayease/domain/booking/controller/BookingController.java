@@ -1,5 +1,129 @@
 package com.stayease.domain.booking.controller;
 
+import com.stayease.domain.booking.dto.BookingDTO;
+import com.stayease.domain.booking.dto.CreateBookingDTO;
+import com.stayease.domain.booking.service.BookingService;
+import com.stayease.shared.dto.ApiResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/bookings")
+@RequiredArgsConstructor
+@Slf4j
 public class BookingController {
-    
+
+    private final BookingService bookingService;
+
+    /**
+     * Book a listing
+     * POST /api/bookings
+     */
+    @PostMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<BookingDTO>> createBooking(@Valid @RequestBody CreateBookingDTO createDTO) {
+        log.info("REST request to create booking for listing: {}", createDTO.getListingId());
+        BookingDTO created = bookingService.createBooking(createDTO);
+
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success(created, "Booking created successfully"));
+    }
+
+    /**
+     * Start checkout by holding the dates until payment completes
+     * POST /api/bookings/holds
+     */
+    @PostMapping("/holds")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<BookingDTO>> createHold(@Valid @RequestBody CreateBookingDTO createDTO) {
+        log.info("REST request to hold dates of listing: {}", createDTO.getListingId());
+        BookingDTO held = bookingService.createHold(createDTO);
+
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success(held, "Dates held until " + held.getHoldExpiresAt()));
+    }
+
+    /**
+     * Complete checkout of a held booking
+     * POST /api/bookings/{publicId}/complete
+     */
+    @PostMapping("/{publicId}/complete")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<BookingDTO>> completeHold(@PathVariable UUID publicId) {
+        log.info("REST request to complete booking hold: {}", publicId);
+        return ResponseEntity.ok(ApiResponse.success(bookingService.completeHold(publicId), "Booking completed successfully"));
+    }
+
+    /**
+     * Get booking by publicId
+     * GET /api/bookings/{publicId}
+     */
+    @GetMapping("/{publicId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<BookingDTO>> getBooking(@PathVariable UUID publicId) {
+        log.info("REST request to get booking: {}", publicId);
+        return ResponseEntity.ok(ApiResponse.success(bookingService.getBooking(publicId)));
+    }
+
+    /**
+     * Get current user's bookings
+     * GET /api/bookings/my-bookings
+     */
+    @GetMapping("/my-bookings")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<Page<BookingDTO>>> getMyBookings(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        log.info("REST request to get current user's bookings");
+        return ResponseEntity.ok(ApiResponse.success(bookingService.getMyBookings(page, size)));
+    }
+
+    /**
+     * Get bookings on the current user's listings
+     * GET /api/bookings/landlord
+     */
+    @GetMapping("/landlord")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<Page<BookingDTO>>> getLandlordBookings(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        log.info("REST request to get bookings on current user's listings");
+        return ResponseEntity.ok(ApiResponse.success(bookingService.getLandlordBookings(page, size)));
+    }
+
+    /**
+     * Confirm a pending booking
+     * POST /api/bookings/{publicId}/confirm
+     */
+    @PostMapping("/{publicId}/confirm")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<BookingDTO>> confirmBooking(@PathVariable UUID publicId) {
+        log.info("REST request to confirm booking: {}", publicId);
+        BookingDTO confirmed = bookingService.confirmBooking(publicId);
+        return ResponseEntity.ok(ApiResponse.success(confirmed, "Booking confirmed successfully"));
+    }
+
+    /**
+     * Cancel a booking
+     * POST /api/bookings/{publicId}/cancel
+     */
+    @PostMapping("/{publicId}/cancel")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<BookingDTO>> cancelBooking(@PathVariable UUID publicId) {
+        log.info("REST request to cancel booking: {}", publicId);
+        BookingDTO cancelled = bookingService.cancelBooking(publicId);
+        return ResponseEntity.ok(ApiResponse.success(cancelled, "Booking cancelled successfully"));
+    }
 }
@@ -1,5 +1,27 @@
 package com.stayease.domain.booking.dto;
 
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class BookingAddonDTO {
-    
+
+    @NotBlank(message = "Addon title is required")
+    @Size(max = 255, message = "Addon title must be at most 255 characters")
+    private String title;
+
+    @NotNull(message = "Addon price is required")
+    @DecimalMin(value = "0.00", message = "Addon price cannot be negative")
+    private BigDecimal price;
+
+    @Min(value = 1, message = "Addon quantity must be at least 1")
+    private Integer quantity;
 }
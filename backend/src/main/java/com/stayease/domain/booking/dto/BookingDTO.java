@@ -1,5 +1,35 @@
 package com.stayease.domain.booking.dto;
 
+import com.stayease.shared.constant.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class BookingDTO {
-    
+
+    private UUID id;
+    private UUID listingId;
+    private String listingTitle;
+    private UUID tenantPublicId;
+    private BookingStatus status;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Long nights;
+    private Integer nbOfTravelers;
+    private BigDecimal totalPrice;
+    private String currency;
+    private List<BookingAddonDTO> addons;
+    private ZonedDateTime holdExpiresAt;
+    private ZonedDateTime createdAt;
 }
@@ -1,5 +1,36 @@
 package com.stayease.domain.booking.dto;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class CreateBookingDTO {
-    
+
+    @NotNull(message = "Listing is required")
+    private UUID listingId;
+
+    @NotNull(message = "Check-in date is required")
+    @FutureOrPresent(message = "Check-in date cannot be in the past")
+    private LocalDate startDate;
+
+    @NotNull(message = "Check-out date is required")
+    private LocalDate endDate;
+
+    @NotNull(message = "Number of travelers is required")
+    @Min(value = 1, message = "At least 1 traveler is required")
+    private Integer nbOfTravelers;
+
+    @Valid
+    private List<BookingAddonDTO> addons;
 }
@@ -0,0 +1,96 @@
+package com.stayease.domain.booking.entity;
+
+import com.stayease.domain.listing.entity.Listing;
+import com.stayease.shared.constant.BookingStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Entity
+@Table(name = "booking")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Booking {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "public_id", nullable = false, unique = true, updatable = false)
+    private UUID publicId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "listing_id")
+    private Listing listing;
+
+    @Column(name = "tenant_public_id", nullable = false)
+    private UUID tenantPublicId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    @Builder.Default
+    private BookingStatus status = BookingStatus.PENDING;
+
+    // Stay is [startDate, endDate): endDate is the check-out day
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    @Column(name = "nb_of_travelers", nullable = false)
+    private Integer nbOfTravelers;
+
+    @Column(name = "total_price", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalPrice;
+
+    @Column(nullable = false, length = 10)
+    @Builder.Default
+    private String currency = "USD";
+
+    // Set while the booking is an unpaid checkout hold; it expires at this instant
+    @Column(name = "hold_expires_at")
+    private ZonedDateTime holdExpiresAt;
+
+    @OneToMany(mappedBy = "booking", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Builder.Default
+    private List<BookingAddon> addons = new ArrayList<>();
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private ZonedDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private ZonedDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (publicId == null) {
+            publicId = UUID.randomUUID();
+        }
+    }
+
+    // Helper methods
+    public void addAddon(BookingAddon addon) {
+        addons.add(addon);
+        addon.setBooking(this);
+    }
+
+    public long getNights() {
+        return ChronoUnit.DAYS.between(startDate, endDate);
+    }
+}
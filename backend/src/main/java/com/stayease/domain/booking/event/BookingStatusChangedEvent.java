@@ -0,0 +1,17 @@
+package com.stayease.domain.booking.event;
+
+import com.stayease.shared.constant.BookingStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Published after a booking status change has been committed.
+ * listingId is the internal listing id, null if the listing was deleted.
+ */
+public record BookingStatusChangedEvent(UUID bookingId, Long listingId, UUID tenantPublicId,
+                                        LocalDate startDate, LocalDate endDate,
+                                        BookingStatus previousStatus, BookingStatus status,
+                                        Instant occurredAt) {
+}
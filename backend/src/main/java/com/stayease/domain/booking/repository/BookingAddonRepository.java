@@ -1,5 +1,9 @@
 package com.stayease.domain.booking.repository;
 
-public class BookingAddonRepository {
-    
+import com.stayease.domain.booking.entity.BookingAddon;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BookingAddonRepository extends JpaRepository<BookingAddon, Long> {
 }
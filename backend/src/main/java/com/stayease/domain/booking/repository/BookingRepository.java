@@ -1,5 +1,79 @@
 package com.stayease.domain.booking.repository;
 
-public class BookingRepository {
-    
+import com.stayease.domain.booking.entity.Booking;
+import com.stayease.shared.constant.BookingStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BookingRepository extends JpaRepository<Booking, Long> {
+
+    Optional<Booking> findByPublicId(UUID publicId);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.listing WHERE b.publicId = :publicId")
+    Optional<Booking> findByPublicIdWithListing(@Param("publicId") UUID publicId);
+
+    /**
+     * Whether a booking that still blocks its dates overlaps [startDate, endDate).
+     * Served by idx_booking_listing_dates.
+     */
+    @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.listing.id = :listingId " +
+           "AND b.status IN (com.stayease.shared.constant.BookingStatus.PENDING, com.stayease.shared.constant.BookingStatus.CONFIRMED) " +
+           "AND b.startDate < :endDate AND b.endDate > :startDate")
+    boolean existsOverlapping(@Param("listingId") Long listingId,
+                              @Param("startDate") LocalDate startDate,
+                              @Param("endDate") LocalDate endDate);
+
+    @Query(value = "SELECT b FROM Booking b JOIN FETCH b.listing WHERE b.tenantPublicId = :tenantPublicId " +
+                   "ORDER BY b.startDate DESC, b.id DESC",
+           countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.tenantPublicId = :tenantPublicId")
+    Page<Booking> findByTenantPublicId(@Param("tenantPublicId") UUID tenantPublicId, Pageable pageable);
+
+    @Query(value = "SELECT b FROM Booking b JOIN FETCH b.listing l WHERE l.landlordPublicId = :landlordPublicId " +
+                   "ORDER BY b.startDate DESC, b.id DESC",
+           countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.listing.landlordPublicId = :landlordPublicId")
+    Page<Booking> findByLandlordPublicId(@Param("landlordPublicId") UUID landlordPublicId, Pageable pageable);
+
+    /**
+     * Move a booking to a new status only if it is still in one of the expected ones, so a
+     * user action cannot overwrite a transition made concurrently by the lifecycle jobs.
+     * Returns 0 when the booking has moved on.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.updatedAt = :now " +
+           "WHERE b.id = :id AND b.status IN :expected")
+    int transition(@Param("id") Long id,
+                   @Param("expected") Collection<BookingStatus> expected,
+                   @Param("status") BookingStatus status,
+                   @Param("now") ZonedDateTime now);
+
+    /**
+     * Close an open checkout hold that has not expired yet. Returns 0 when the hold is gone
+     * (expired, cancelled or already completed).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.holdExpiresAt = NULL, b.updatedAt = :now " +
+           "WHERE b.id = :id AND b.status = com.stayease.shared.constant.BookingStatus.PENDING " +
+           "AND b.holdExpiresAt > :now")
+    int completeHold(@Param("id") Long id, @Param("status") BookingStatus status, @Param("now") ZonedDateTime now);
+
+    /**
+     * Whether the tenant has a completed payment recorded against the booking. The payment
+     * table is written by the payment integration; until it records one, holds cannot complete.
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM payment p WHERE p.related_booking_id = :bookingId " +
+                   "AND p.payer_public_id = :payerPublicId AND p.status = 'COMPLETED')",
+           nativeQuery = true)
+    boolean existsCompletedPayment(@Param("bookingId") Long bookingId, @Param("payerPublicId") UUID payerPublicId);
 }
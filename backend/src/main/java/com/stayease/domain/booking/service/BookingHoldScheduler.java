@@ -0,0 +1,172 @@
+package com.stayease.domain.booking.service;
+
+import com.stayease.domain.booking.event.BookingStatusChangedEvent;
+import com.stayease.domain.listing.service.ListingAvailabilityIndex;
+import com.stayease.shared.constant.BookingStatus;
+import com.stayease.shared.util.HashedTimingWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires checkout holds (PENDING bookings with hold_expires_at) on time without polling.
+ *
+ * Every open hold has one timeout on an in-process {@link HashedTimingWheel}, indexed by
+ * booking id so completing or cancelling a hold cancels its timeout in O(1). When a timeout
+ * fires, a conditional UPDATE expires the booking only if it is still an open, overdue hold,
+ * so holds completed or cancelled elsewhere (or expired by another node) are left alone.
+ * Open holds are reloaded from idx_booking_open_holds on startup; BookingLifecycleJobs
+ * expires any hold whose node went away for good.
+ */
+@Component
+@Slf4j
+public class BookingHoldScheduler {
+
+    private static final String LOAD_OPEN_HOLDS_SQL =
+            "SELECT id, hold_expires_at FROM booking WHERE status = 'PENDING' AND hold_expires_at IS NOT NULL";
+
+    private static final String EXPIRE_HOLD_SQL =
+            "UPDATE booking SET status = 'EXPIRED', updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = ? AND status = 'PENDING' AND hold_expires_at IS NOT NULL AND hold_expires_at <= ? " +
+            "RETURNING public_id, listing_id, tenant_public_id, start_date, end_date";
+
+    // Delay before retrying an expiry that failed on a database error
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(30);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ListingAvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration holdDuration;
+    private final ExecutorService expiryExecutor;
+    private final HashedTimingWheel wheel;
+    private final ConcurrentHashMap<Long, HashedTimingWheel.Timeout> timeoutsByBooking = new ConcurrentHashMap<>();
+
+    public BookingHoldScheduler(JdbcTemplate jdbcTemplate,
+                                ListingAvailabilityIndex availabilityIndex,
+                                ApplicationEventPublisher eventPublisher,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.booking.hold.duration-minutes:10}") long holdMinutes,
+                                @Value("${app.booking.hold.tick-ms:1000}") long tickMillis,
+                                @Value("${app.booking.hold.ticks-per-wheel:1024}") int ticksPerWheel,
+                                @Value("${app.booking.hold.expiry-threads:2}") int expiryThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.availabilityIndex = availabilityIndex;
+        this.eventPublisher = eventPublisher;
+        this.holdDuration = Duration.ofMinutes(holdMinutes);
+        this.expiryExecutor = Executors.newFixedThreadPool(expiryThreads, runnable -> {
+            Thread thread = new Thread(runnable, "booking-hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.wheel = new HashedTimingWheel("booking-hold-wheel", Duration.ofMillis(tickMillis), ticksPerWheel, expiryExecutor);
+
+        Gauge.builder("booking.holds.open", wheel, HashedTimingWheel::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * How long a new checkout hold blocks its dates
+     */
+    public Duration getHoldDuration() {
+        return holdDuration;
+    }
+
+    /**
+     * Expire the hold of a booking at expiresAt, replacing any earlier timeout for it
+     */
+    public void schedule(Long bookingId, Instant expiresAt) {
+        Duration delay = Duration.between(Instant.now(), expiresAt);
+        HashedTimingWheel.Timeout timeout = wheel.schedule(() -> expire(bookingId, expiresAt), delay);
+        HashedTimingWheel.Timeout previous = timeoutsByBooking.put(bookingId, timeout);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    /**
+     * Stop tracking a hold that was completed or cancelled
+     */
+    public void cancel(Long bookingId) {
+        HashedTimingWheel.Timeout timeout = timeoutsByBooking.remove(bookingId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * Reschedule every open hold after a restart; overdue ones expire on the next tick
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        long started = System.nanoTime();
+        int[] recovered = {0};
+        jdbcTemplate.query(LOAD_OPEN_HOLDS_SQL, rs -> {
+            schedule(rs.getLong("id"), rs.getTimestamp("hold_expires_at").toInstant());
+            recovered[0]++;
+        });
+        log.info("Recovered {} open booking holds in {} ms", recovered[0], (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+        expiryExecutor.shutdown();
+        try {
+            expiryExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void expire(Long bookingId, Instant expiresAt) {
+        try {
+            List<ExpiredHold> expired = jdbcTemplate.query(EXPIRE_HOLD_SQL,
+                    (rs, rowNum) -> new ExpiredHold(
+                            rs.getObject("public_id", UUID.class),
+                            rs.getObject("listing_id", Long.class),
+                            rs.getObject("tenant_public_id", UUID.class),
+                            rs.getDate("start_date").toLocalDate(),
+                            rs.getDate("end_date").toLocalDate()),
+                    bookingId, Timestamp.from(Instant.now()));
+            timeoutsByBooking.computeIfPresent(bookingId, (id, timeout) -> timeout.isExpired() ? null : timeout);
+
+            for (ExpiredHold hold : expired) {
+                if (hold.listingId() != null) {
+                    availabilityIndex.removeBooking(hold.listingId(), hold.startDate(), hold.endDate());
+                }
+                eventPublisher.publishEvent(new BookingStatusChangedEvent(hold.publicId(), hold.listingId(),
+                        hold.tenantPublicId(), hold.startDate(), hold.endDate(),
+                        BookingStatus.PENDING, BookingStatus.EXPIRED, Instant.now()));
+                log.info("Booking hold {} expired", bookingId);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to expire booking hold {}, retrying in {} s: {}",
+                    bookingId, RETRY_DELAY.toSeconds(), e.getMessage());
+            schedule(bookingId, Instant.now().plus(RETRY_DELAY));
+        } catch (RuntimeException e) {
+            log.error("Unexpected error expiring booking hold {} (due {})", bookingId, expiresAt, e);
+        }
+    }
+
+    private record ExpiredHold(UUID publicId, Long listingId, UUID tenantPublicId, LocalDate startDate, LocalDate endDate) {
+    }
+}
@@ -0,0 +1,150 @@
+package com.stayease.domain.booking.service;
+
+import com.stayease.domain.booking.event.BookingStatusChangedEvent;
+import com.stayease.domain.listing.service.ListingAvailabilityIndex;
+import com.stayease.shared.constant.BookingStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Scheduled booking status transitions, run as set-based statements in chunks.
+ *
+ * Each chunk is one short transaction: a CTE claims up to chunk-size rows with
+ * FOR UPDATE SKIP LOCKED and an UPDATE ... RETURNING changes them, so no entity is loaded
+ * and several nodes can run the same job at once without blocking each other or changing
+ * a row twice. A {@link BookingStatusChangedEvent} is published per changed row once its
+ * chunk has committed.
+ */
+@Component
+@Slf4j
+public class BookingLifecycleJobs {
+
+    private static final String RETURNING_COLUMNS =
+            "RETURNING b.public_id, b.listing_id, b.tenant_public_id, b.start_date, b.end_date";
+
+    // Stays whose check-out day has come; completed stays count towards listing.booking_count
+    // in the same statement (idx_booking_confirmed_end)
+    private static final String COMPLETE_STAYS_SQL =
+            "WITH claimed AS (" +
+            "  SELECT id FROM booking WHERE status = 'CONFIRMED' AND end_date <= ? " +
+            "  ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED" +
+            "), completed AS (" +
+            "  UPDATE booking b SET status = 'COMPLETED', updated_at = CURRENT_TIMESTAMP FROM claimed c WHERE b.id = c.id " +
+            "  " + RETURNING_COLUMNS +
+            "), counted AS (" +
+            "  UPDATE listing l SET booking_count = COALESCE(l.booking_count, 0) + n.stays " +
+            "  FROM (SELECT listing_id, COUNT(*) AS stays FROM completed WHERE listing_id IS NOT NULL GROUP BY listing_id) n " +
+            "  WHERE l.id = n.listing_id" +
+            ") SELECT * FROM completed";
+
+    // Checkout holds past their expiry; normally expired by BookingHoldScheduler already,
+    // this catches holds of nodes that went away (idx_booking_open_holds)
+    private static final String EXPIRE_HOLDS_SQL =
+            "WITH claimed AS (" +
+            "  SELECT id FROM booking WHERE status = 'PENDING' AND hold_expires_at IS NOT NULL AND hold_expires_at <= ? " +
+            "  ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED" +
+            ") UPDATE booking b SET status = 'EXPIRED', updated_at = CURRENT_TIMESTAMP FROM claimed c WHERE b.id = c.id " +
+            RETURNING_COLUMNS;
+
+    // Booking requests the landlord never answered before check-in (idx_booking_requested_start)
+    private static final String EXPIRE_REQUESTS_SQL =
+            "WITH claimed AS (" +
+            "  SELECT id FROM booking WHERE status = 'PENDING' AND hold_expires_at IS NULL AND start_date <= ? " +
+            "  ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED" +
+            ") UPDATE booking b SET status = 'EXPIRED', updated_at = CURRENT_TIMESTAMP FROM claimed c WHERE b.id = c.id " +
+            RETURNING_COLUMNS;
+
+    private static final RowMapper<ChangedBooking> CHANGED_BOOKING_MAPPER = (rs, rowNum) -> new ChangedBooking(
+            rs.getObject("public_id", UUID.class),
+            rs.getObject("listing_id", Long.class),
+            rs.getObject("tenant_public_id", UUID.class),
+            rs.getDate("start_date").toLocalDate(),
+            rs.getDate("end_date").toLocalDate());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ListingAvailabilityIndex availabilityIndex;
+    private final int chunkSize;
+
+    public BookingLifecycleJobs(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher eventPublisher,
+                                ListingAvailabilityIndex availabilityIndex,
+                                @Value("${app.booking.lifecycle.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.availabilityIndex = availabilityIndex;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Move confirmed stays that have ended to COMPLETED
+     */
+    @Scheduled(fixedDelayString = "${app.booking.lifecycle.interval-ms:60000}",
+               initialDelayString = "${app.booking.lifecycle.initial-delay-ms:30000}")
+    public void completeFinishedStays() {
+        Date today = Date.valueOf(LocalDate.now());
+        int completed = runInChunks(COMPLETE_STAYS_SQL, today, BookingStatus.CONFIRMED, BookingStatus.COMPLETED);
+        if (completed > 0) {
+            log.info("Completed {} finished stays", completed);
+        }
+    }
+
+    /**
+     * Move unpaid holds past their expiry and unanswered requests past check-in to EXPIRED,
+     * freeing their dates
+     */
+    @Scheduled(fixedDelayString = "${app.booking.lifecycle.interval-ms:60000}",
+               initialDelayString = "${app.booking.lifecycle.initial-delay-ms:30000}")
+    public void expireStalePending() {
+        int holds = runInChunks(EXPIRE_HOLDS_SQL, Timestamp.from(Instant.now()), BookingStatus.PENDING, BookingStatus.EXPIRED);
+        int requests = runInChunks(EXPIRE_REQUESTS_SQL, Date.valueOf(LocalDate.now()), BookingStatus.PENDING, BookingStatus.EXPIRED);
+        if (holds + requests > 0) {
+            log.info("Expired {} lapsed holds and {} unanswered booking requests", holds, requests);
+        }
+    }
+
+    /**
+     * Run sql (parameters: cutoff, chunk size) until a chunk comes back short
+     */
+    private int runInChunks(String sql, Object cutoff, BookingStatus previousStatus, BookingStatus status) {
+        int total = 0;
+        List<ChangedBooking> chunk;
+        do {
+            chunk = transactionTemplate.execute(tx -> jdbcTemplate.query(sql, CHANGED_BOOKING_MAPPER, cutoff, chunkSize));
+            total += chunk.size();
+            afterChunk(chunk, previousStatus, status);
+        } while (chunk.size() == chunkSize);
+        return total;
+    }
+
+    private void afterChunk(List<ChangedBooking> chunk, BookingStatus previousStatus, BookingStatus status) {
+        Instant now = Instant.now();
+        for (ChangedBooking booking : chunk) {
+            if (!status.blocksDates() && booking.listingId() != null) {
+                availabilityIndex.removeBooking(booking.listingId(), booking.startDate(), booking.endDate());
+            }
+            eventPublisher.publishEvent(new BookingStatusChangedEvent(booking.publicId(), booking.listingId(),
+                    booking.tenantPublicId(), booking.startDate(), booking.endDate(), previousStatus, status, now));
+        }
+    }
+
+    private record ChangedBooking(UUID publicId, Long listingId, UUID tenantPublicId, LocalDate startDate, LocalDate endDate) {
+    }
+}
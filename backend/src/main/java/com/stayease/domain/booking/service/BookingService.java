@@ -1,5 +1,359 @@
 package com.stayease.domain.booking.service;
 
+import com.stayease.domain.booking.dto.BookingAddonDTO;
+import com.stayease.domain.booking.dto.BookingDTO;
+import com.stayease.domain.booking.dto.CreateBookingDTO;
+import com.stayease.domain.booking.entity.Booking;
+import com.stayease.domain.booking.entity.BookingAddon;
+import com.stayease.domain.booking.repository.BookingRepository;
+import com.stayease.domain.listing.entity.Listing;
+import com.stayease.domain.listing.repository.ListingRepository;
+import com.stayease.domain.listing.service.ListingAvailabilityIndex;
+import com.stayease.domain.listing.service.ListingPricingService;
+import com.stayease.exception.BadRequestException;
+import com.stayease.exception.ConflictException;
+import com.stayease.exception.ForbiddenException;
+import com.stayease.exception.NotFoundException;
+import com.stayease.exception.ServiceUnavailableException;
+import com.stayease.security.SecurityUtils;
+import com.stayease.shared.constant.AuthorityConstant;
+import com.stayease.shared.constant.BookingStatus;
+import com.stayease.shared.constant.ListingStatus;
+import com.stayease.shared.mapper.BookingMapper;
+import com.stayease.shared.util.PriceUtil;
+import com.stayease.shared.util.StripedLock;
+import com.stayease.shared.util.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
 public class BookingService {
-    
+
+    private static final int LISTING_LOCK_STRIPES = 1024;
+    private static final long LISTING_LOCK_TIMEOUT_MS = 5000;
+
+    private final BookingRepository bookingRepository;
+    private final ListingRepository listingRepository;
+    private final BookingMapper bookingMapper;
+    private final SecurityUtils securityUtils;
+    private final ListingAvailabilityIndex availabilityIndex;
+    private final ListingPricingService pricingService;
+    private final BookingHoldScheduler holdScheduler;
+    private final PlatformTransactionManager transactionManager;
+
+    // Serializes booking attempts per listing on this node; ex_booking_listing_dates covers other nodes
+    private final StripedLock listingLocks = new StripedLock(LISTING_LOCK_STRIPES);
+
+    /**
+     * Create a booking without ever double-booking a listing.
+     *
+     * Attempts on the same listing take its lock stripe and then run a short transaction
+     * (overlap check + insert), so on this node they queue instead of racing; attempts
+     * on other listings use other stripes and do not contend. The exclusion constraint
+     * rejects overlaps created concurrently by another node, which is reported as a conflict.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BookingDTO createBooking(CreateBookingDTO createDTO) {
+        return bookingMapper.toDTO(insertBooking(createDTO, null));
+    }
+
+    /**
+     * Start checkout: hold the dates with a PENDING booking that expires after the hold
+     * duration unless {@link #completeHold} is called first, once payment has been recorded
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BookingDTO createHold(CreateBookingDTO createDTO) {
+        Instant expiresAt = Instant.now().plus(holdScheduler.getHoldDuration());
+        Booking saved = insertBooking(createDTO, expiresAt);
+
+        holdScheduler.schedule(saved.getId(), expiresAt);
+        log.info("Booking {} holds listing dates until {}", saved.getPublicId(), expiresAt);
+        return bookingMapper.toDTO(saved);
+    }
+
+    /**
+     * Turn an open hold into a regular booking: confirmed for instant-book listings,
+     * otherwise pending the landlord's confirmation. Requires a completed payment for the
+     * booking from the tenant and fails once the hold has expired.
+     */
+    public BookingDTO completeHold(UUID publicId) {
+        log.info("Completing booking hold: {}", publicId);
+        Booking booking = findWithListing(publicId);
+
+        if (!isTenant(booking, securityUtils.getCurrentUserPublicId())) {
+            throw new ForbiddenException("You don't have permission to complete this booking");
+        }
+        if (booking.getHoldExpiresAt() == null) {
+            throw new ConflictException("Booking is not an open hold");
+        }
+        if (!bookingRepository.existsCompletedPayment(booking.getId(), booking.getTenantPublicId())) {
+            throw new ConflictException("Booking hold has not been paid");
+        }
+
+        BookingStatus status = Boolean.TRUE.equals(booking.getListing().getInstantBook())
+                ? BookingStatus.CONFIRMED
+                : BookingStatus.PENDING;
+        // Conditional, so it cannot overlap with the hold expiring concurrently
+        if (bookingRepository.completeHold(booking.getId(), status, ZonedDateTime.now()) == 0) {
+            throw new ConflictException("Booking hold has expired");
+        }
+
+        Long bookingId = booking.getId();
+        TransactionUtil.afterCommit(() -> holdScheduler.cancel(bookingId));
+        booking.setStatus(status);
+        booking.setHoldExpiresAt(null);
+        return bookingMapper.toDTO(booking);
+    }
+
+    private Booking insertBooking(CreateBookingDTO createDTO, Instant holdExpiresAt) {
+        LocalDate startDate = createDTO.getStartDate();
+        LocalDate endDate = createDTO.getEndDate();
+        validateDates(startDate, endDate);
+
+        UUID tenantPublicId = securityUtils.getCurrentUserPublicId();
+        log.info("Creating booking for listing {} from {} to {}", createDTO.getListingId(), startDate, endDate);
+
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        Listing listing = readOnlyTransaction.execute(status -> listingRepository.findByPublicId(createDTO.getListingId())
+                .orElseThrow(() -> new NotFoundException("Listing not found")));
+        validateBookable(listing, createDTO, tenantPublicId);
+
+        // The database decides availability: the in-memory index can lag changes made on
+        // other nodes, so it is only updated here, never consulted
+        Booking saved;
+        ReentrantLock lock = lockListing(listing.getId());
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            saved = transaction.execute(status -> {
+                if (bookingRepository.existsOverlapping(listing.getId(), startDate, endDate)) {
+                    throw new ConflictException("Listing is not available for the selected dates");
+                }
+                return bookingRepository.saveAndFlush(buildBooking(listing, createDTO, tenantPublicId, holdExpiresAt));
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.info("Booking for listing {} lost an overlap race on another node", listing.getId());
+            throw new ConflictException("Listing is not available for the selected dates");
+        } finally {
+            lock.unlock();
+        }
+
+        availabilityIndex.addBooking(listing.getId(), startDate, endDate);
+        log.info("Booking created successfully with publicId: {}", saved.getPublicId());
+        return saved;
+    }
+
+    /**
+     * Get a booking visible to the current user (tenant, landlord or admin)
+     */
+    @Transactional(readOnly = true)
+    public BookingDTO getBooking(UUID publicId) {
+        log.info("Fetching booking: {}", publicId);
+        Booking booking = findWithListing(publicId);
+
+        UUID currentUserPublicId = securityUtils.getCurrentUserPublicId();
+        if (!isTenant(booking, currentUserPublicId) && !isLandlord(booking, currentUserPublicId)
+                && !securityUtils.hasAuthority(AuthorityConstant.ROLE_ADMIN)) {
+            throw new ForbiddenException("You don't have permission to view this booking");
+        }
+        return bookingMapper.toDTO(booking);
+    }
+
+    /**
+     * Get current user's bookings as a tenant
+     */
+    @Transactional(readOnly = true)
+    public Page<BookingDTO> getMyBookings(int page, int size) {
+        UUID currentUserPublicId = securityUtils.getCurrentUserPublicId();
+        log.info("Fetching bookings for tenant: {}", currentUserPublicId);
+
+        Pageable pageable = PageRequest.of(page, size);
+        return bookingRepository.findByTenantPublicId(currentUserPublicId, pageable)
+                .map(bookingMapper::toDTO);
+    }
+
+    /**
+     * Get bookings on the current user's listings
+     */
+    @Transactional(readOnly = true)
+    public Page<BookingDTO> getLandlordBookings(int page, int size) {
+        UUID currentUserPublicId = securityUtils.getCurrentUserPublicId();
+        log.info("Fetching bookings for landlord: {}", currentUserPublicId);
+
+        Pageable pageable = PageRequest.of(page, size);
+        return bookingRepository.findByLandlordPublicId(currentUserPublicId, pageable)
+                .map(bookingMapper::toDTO);
+    }
+
+    /**
+     * Landlord accepts a pending booking
+     */
+    public BookingDTO confirmBooking(UUID publicId) {
+        log.info("Confirming booking: {}", publicId);
+        Booking booking = findWithListing(publicId);
+
+        if (!isLandlord(booking, securityUtils.getCurrentUserPublicId())) {
+            throw new ForbiddenException("You don't have permission to confirm this booking");
+        }
+        if (booking.getStatus() != BookingStatus.PENDING) {
+            throw new ConflictException("Only pending bookings can be confirmed");
+        }
+        if (booking.getHoldExpiresAt() != null) {
+            throw new ConflictException("Booking is still awaiting payment");
+        }
+
+        // Conditional, so it cannot overwrite the booking expiring concurrently
+        if (bookingRepository.transition(booking.getId(), EnumSet.of(BookingStatus.PENDING),
+                BookingStatus.CONFIRMED, ZonedDateTime.now()) == 0) {
+            throw new ConflictException("Only pending bookings can be confirmed");
+        }
+
+        booking.setStatus(BookingStatus.CONFIRMED);
+        return bookingMapper.toDTO(booking);
+    }
+
+    /**
+     * Tenant or landlord cancels a booking, freeing its dates
+     */
+    public BookingDTO cancelBooking(UUID publicId) {
+        log.info("Cancelling booking: {}", publicId);
+        Booking booking = findWithListing(publicId);
+
+        UUID currentUserPublicId = securityUtils.getCurrentUserPublicId();
+        if (!isTenant(booking, currentUserPublicId) && !isLandlord(booking, currentUserPublicId)) {
+            throw new ForbiddenException("You don't have permission to cancel this booking");
+        }
+        if (!booking.getStatus().blocksDates()) {
+            throw new ConflictException("Booking is already " + booking.getStatus().name().toLowerCase());
+        }
+
+        // Conditional, so it cannot overwrite the booking expiring or completing concurrently
+        if (bookingRepository.transition(booking.getId(), EnumSet.of(BookingStatus.PENDING, BookingStatus.CONFIRMED),
+                BookingStatus.CANCELLED, ZonedDateTime.now()) == 0) {
+            throw new ConflictException("Booking can no longer be cancelled");
+        }
+
+        booking.setStatus(BookingStatus.CANCELLED);
+
+        Long listingId = booking.getListing().getId();
+        TransactionUtil.afterCommit(() -> {
+            availabilityIndex.removeBooking(listingId, booking.getStartDate(), booking.getEndDate());
+            holdScheduler.cancel(booking.getId());
+        });
+        return bookingMapper.toDTO(booking);
+    }
+
+    private ReentrantLock lockListing(Long listingId) {
+        ReentrantLock lock = listingLocks.lockFor(listingId);
+        try {
+            if (!lock.tryLock(LISTING_LOCK_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new ServiceUnavailableException("Listing is busy, please retry shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Booking interrupted");
+        }
+        return lock;
+    }
+
+    private Booking findWithListing(UUID publicId) {
+        return bookingRepository.findByPublicIdWithListing(publicId)
+                .orElseThrow(() -> new NotFoundException("Booking not found"));
+    }
+
+    private void validateDates(LocalDate startDate, LocalDate endDate) {
+        if (!endDate.isAfter(startDate)) {
+            throw new BadRequestException("Check-out date must be after check-in date");
+        }
+        if (startDate.isBefore(LocalDate.now())) {
+            throw new BadRequestException("Check-in date cannot be in the past");
+        }
+    }
+
+    private void validateBookable(Listing listing, CreateBookingDTO createDTO, UUID tenantPublicId) {
+        if (listing.getStatus() != ListingStatus.ACTIVE || !Boolean.TRUE.equals(listing.getIsActive())) {
+            throw new BadRequestException("Listing is not available for booking");
+        }
+        if (listing.getLandlordPublicId().equals(tenantPublicId)) {
+            throw new BadRequestException("You cannot book your own listing");
+        }
+        if (createDTO.getNbOfTravelers() > listing.getGuests()) {
+            throw new BadRequestException("Listing accepts at most " + listing.getGuests() + " guests");
+        }
+
+        long nights = ChronoUnit.DAYS.between(createDTO.getStartDate(), createDTO.getEndDate());
+        if (listing.getMinNights() != null && nights < listing.getMinNights()) {
+            throw new BadRequestException("Minimum stay is " + listing.getMinNights() + " nights");
+        }
+        if (listing.getMaxNights() != null && nights > listing.getMaxNights()) {
+            throw new BadRequestException("Maximum stay is " + listing.getMaxNights() + " nights");
+        }
+    }
+
+    private Booking buildBooking(Listing listing, CreateBookingDTO createDTO, UUID tenantPublicId, Instant holdExpiresAt) {
+        boolean confirmed = holdExpiresAt == null && Boolean.TRUE.equals(listing.getInstantBook());
+        Booking booking = Booking.builder()
+                .listing(listing)
+                .tenantPublicId(tenantPublicId)
+                .status(confirmed ? BookingStatus.CONFIRMED : BookingStatus.PENDING)
+                .holdExpiresAt(holdExpiresAt != null ? holdExpiresAt.atZone(ZoneOffset.UTC) : null)
+                .startDate(createDTO.getStartDate())
+                .endDate(createDTO.getEndDate())
+                .nbOfTravelers(createDTO.getNbOfTravelers())
+                .currency(listing.getCurrency())
+                .build();
+
+        if (createDTO.getAddons() != null) {
+            for (BookingAddonDTO addonDTO : createDTO.getAddons()) {
+                booking.addAddon(bookingMapper.toAddonEntity(addonDTO));
+            }
+        }
+        booking.setTotalPrice(calculateTotalPrice(listing, booking));
+        return booking;
+    }
+
+    /**
+     * Stay price from the listing's pricing rules (same engine as quotes), plus addons
+     */
+    private BigDecimal calculateTotalPrice(Listing listing, Booking booking) {
+        PriceUtil.Quote quote = pricingService.quoteStay(listing, booking.getStartDate(), booking.getEndDate());
+        int digits = PriceUtil.fractionDigits(listing.getCurrency());
+
+        long total = quote.total();
+        for (BookingAddon addon : booking.getAddons()) {
+            total = Math.addExact(total, Math.multiplyExact(PriceUtil.toMinor(addon.getPrice(), digits), (long) addon.getQuantity()));
+        }
+        return PriceUtil.toMajor(total, digits);
+    }
+
+    private static boolean isTenant(Booking booking, UUID userPublicId) {
+        return booking.getTenantPublicId().equals(userPublicId);
+    }
+
+    private static boolean isLandlord(Booking booking, UUID userPublicId) {
+        return booking.getListing() != null && booking.getListing().getLandlordPublicId().equals(userPublicId);
+    }
 }
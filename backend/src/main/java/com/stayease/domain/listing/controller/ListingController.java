@@ -1,18 +1,26 @@
 package com.stayease.domain.listing.controller;
 
 import com.stayease.domain.listing.dto.*;
+import com.stayease.domain.listing.service.ListingDetailCache;
+import com.stayease.domain.listing.service.ListingPricingService;
 import com.stayease.domain.listing.service.ListingService;
 import com.stayease.shared.dto.ApiResponse;
+import com.stayease.shared.dto.CursorPageDTO;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @RestController
@@ -23,6 +31,7 @@ import java.util.UUID;
 public class ListingController {
 
     private final ListingService listingService;
+    private final ListingPricingService pricingService;
 
     /**
      * Create a new listing
@@ -46,11 +55,88 @@ public class ListingController {
      * GET /api/listings/{publicId}
      */
     @GetMapping("/{publicId}")
-    public ResponseEntity<ApiResponse<ListingDTO>> getListing(@PathVariable UUID publicId) {
+    public ResponseEntity<ApiResponse<ListingDTO>> getListing(@PathVariable UUID publicId, WebRequest request) {
         log.info("REST request to get listing: {}", publicId);
-        ListingDTO listing = listingService.getListing(publicId);
+        ListingDetailCache.ListingDetail detail = listingService.getListingDetail(publicId);
+
+        long lastModified = detail.lastModified() != null ? detail.lastModified().toInstant().toEpochMilli() : -1;
+        if (request.checkNotModified(detail.etag(), lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(detail.etag())
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(detail.etag())
+                .lastModified(lastModified)
+                .body(ApiResponse.success(detail.listing()));
+    }
+
+    /**
+     * Get listing availability calendar
+     * GET /api/listings/{publicId}/calendar?from=2025-03-01&to=2025-06-01
+     */
+    @GetMapping("/{publicId}/calendar")
+    public ResponseEntity<ApiResponse<ListingCalendarDTO>> getCalendar(
+            @PathVariable UUID publicId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        ListingCalendarDTO calendar = listingService.getCalendar(publicId, from, to);
+        return ResponseEntity.ok(ApiResponse.success(calendar));
+    }
+
+    /**
+     * Get price quote for a stay
+     * GET /api/listings/{publicId}/quote?checkIn=2025-03-01&checkOut=2025-03-05&guests=2
+     */
+    @GetMapping("/{publicId}/quote")
+    public ResponseEntity<ApiResponse<PriceQuoteDTO>> getQuote(
+            @PathVariable UUID publicId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+            @RequestParam(required = false) Integer guests) {
 
-        return ResponseEntity.ok(ApiResponse.success(listing));
+        PriceQuoteDTO quote = pricingService.getQuote(publicId, checkIn, checkOut, guests);
+        return ResponseEntity.ok(ApiResponse.success(quote));
+    }
+
+    /**
+     * Quote the same stay for several listings (e.g. a search result page)
+     * POST /api/listings/quotes
+     */
+    @PostMapping("/quotes")
+    public ResponseEntity<ApiResponse<List<PriceQuoteDTO>>> getQuotes(@Valid @RequestBody PriceQuoteRequestDTO request) {
+        log.debug("REST request to quote {} listings", request.getListingIds().size());
+        List<PriceQuoteDTO> quotes = pricingService.getQuotes(request);
+
+        return ResponseEntity.ok(ApiResponse.success(quotes));
+    }
+
+    /**
+     * Get pricing rules of a listing
+     * GET /api/listings/{publicId}/pricing-rules
+     */
+    @GetMapping("/{publicId}/pricing-rules")
+    public ResponseEntity<ApiResponse<List<ListingPriceRuleDTO>>> getPriceRules(@PathVariable UUID publicId) {
+        List<ListingPriceRuleDTO> rules = pricingService.getPriceRules(publicId);
+        return ResponseEntity.ok(ApiResponse.success(rules));
+    }
+
+    /**
+     * Replace pricing rules of a listing
+     * PUT /api/listings/{publicId}/pricing-rules
+     */
+    @PutMapping("/{publicId}/pricing-rules")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<List<ListingPriceRuleDTO>>> replacePriceRules(
+            @PathVariable UUID publicId,
+            @Valid @RequestBody List<@Valid ListingPriceRuleDTO> rules) {
+
+        log.info("REST request to replace {} pricing rules of listing: {}", rules.size(), publicId);
+        List<ListingPriceRuleDTO> saved = pricingService.replacePriceRules(publicId, rules);
+
+        return ResponseEntity.ok(ApiResponse.success(saved, "Pricing rules updated successfully"));
     }
 
     /**
@@ -87,12 +173,18 @@ public class ListingController {
  * GET /api/listings/search
  */
 @GetMapping("/search")
-public ResponseEntity<ApiResponse<Page<ListingDTO>>> searchListings(
+public ResponseEntity<ApiResponse<Page<ListingCardDTO>>> searchListings(
         @RequestParam(required = false) String location,
         @RequestParam(required = false) Integer guests,
         @RequestParam(required = false) String category,
         @RequestParam(required = false) BigDecimal minPrice,
         @RequestParam(required = false) BigDecimal maxPrice,
+        @RequestParam(required = false) List<String> amenities,
+        @RequestParam(required = false) Double latitude,
+        @RequestParam(required = false) Double longitude,
+        @RequestParam(required = false) Double radiusKm,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
         @RequestParam(required = false) String sortBy,
         @RequestParam(defaultValue = "0") int page,
         @RequestParam(defaultValue = "20") int size) {
@@ -106,27 +198,170 @@ public ResponseEntity<ApiResponse<Page<ListingDTO>>> searchListings(
             .category(category)
             .minPrice(minPrice)
             .maxPrice(maxPrice)
+            .amenities(amenities)
+            .latitude(latitude)
+            .longitude(longitude)
+            .radiusKm(radiusKm)
+            .checkIn(checkIn)
+            .checkOut(checkOut)
             .sortBy(sortBy)
             .page(page)
             .size(size)
             .build();
 
-    Page<ListingDTO> results = listingService.searchListings(searchDTO);
+    Page<ListingCardDTO> results = listingService.searchListings(searchDTO);
 
     return ResponseEntity.ok(ApiResponse.success(results));
 }
 
+    /**
+     * Search listings with cursor pagination
+     * GET /api/listings/search/cursor
+     */
+    @GetMapping("/search/cursor")
+    public ResponseEntity<ApiResponse<CursorPageDTO<ListingCardDTO>>> searchListingsByCursor(
+            @RequestParam(required = false) Integer guests,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) List<String> amenities,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        log.info("REST request to search listings by cursor - guests: {}, category: {}", guests, category);
+
+        SearchListingDTO searchDTO = SearchListingDTO.builder()
+                .guests(guests)
+                .category(category)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .amenities(amenities)
+                .checkIn(checkIn)
+                .checkOut(checkOut)
+                .sortBy(sortBy)
+                .size(size)
+                .build();
+
+        CursorPageDTO<ListingCardDTO> results = listingService.searchListingsByCursor(searchDTO, cursor);
+
+        return ResponseEntity.ok(ApiResponse.success(results));
+    }
+
+    /**
+     * Search listings with a free stay of the given length anywhere in a date range
+     * GET /api/listings/search/flexible
+     */
+    @GetMapping("/search/flexible")
+    public ResponseEntity<ApiResponse<Page<FlexibleListingDTO>>> searchFlexibleDates(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam int nights,
+            @RequestParam(required = false) Integer guests,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) List<String> amenities,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        log.info("REST request to search listings for {} nights between {} and {}", nights, from, to);
+
+        SearchListingDTO searchDTO = SearchListingDTO.builder()
+                .flexibleFrom(from)
+                .flexibleTo(to)
+                .nights(nights)
+                .guests(guests)
+                .category(category)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .amenities(amenities)
+                .sortBy(sortBy)
+                .page(page)
+                .size(size)
+                .build();
+
+        Page<FlexibleListingDTO> results = listingService.searchFlexibleDates(searchDTO);
+
+        return ResponseEntity.ok(ApiResponse.success(results));
+    }
+
+    /**
+     * Search listings inside a map viewport
+     * GET /api/listings/map
+     */
+    @GetMapping("/map")
+    public ResponseEntity<ApiResponse<Page<ListingCardDTO>>> searchInViewport(
+            @RequestParam Double minLat,
+            @RequestParam Double maxLat,
+            @RequestParam Double minLng,
+            @RequestParam Double maxLng,
+            @RequestParam(required = false) Integer guests,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) List<String> amenities,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+
+        log.info("REST request to search listings in viewport - lat: [{}, {}], lng: [{}, {}]",
+                 minLat, maxLat, minLng, maxLng);
+
+        SearchListingDTO searchDTO = SearchListingDTO.builder()
+                .minLatitude(minLat)
+                .maxLatitude(maxLat)
+                .minLongitude(minLng)
+                .maxLongitude(maxLng)
+                .guests(guests)
+                .category(category)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .amenities(amenities)
+                .checkIn(checkIn)
+                .checkOut(checkOut)
+                .sortBy(sortBy)
+                .page(page)
+                .size(size)
+                .build();
+
+        Page<ListingCardDTO> results = listingService.searchInViewport(searchDTO);
+
+        return ResponseEntity.ok(ApiResponse.success(results));
+    }
+
     /**
      * Get all listings
      * GET /api/listings
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<Page<ListingDTO>>> getAllListings(
+    public ResponseEntity<ApiResponse<Page<ListingCardDTO>>> getAllListings(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
 
         log.info("REST request to get all listings");
-        Page<ListingDTO> results = listingService.getAllListings(page, size);
+        Page<ListingCardDTO> results = listingService.getAllListings(page, size);
+
+        return ResponseEntity.ok(ApiResponse.success(results));
+    }
+
+    /**
+     * Get all listings with cursor pagination
+     * GET /api/listings/cursor
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<ApiResponse<CursorPageDTO<ListingCardDTO>>> getAllListingsByCursor(
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        log.info("REST request to get all listings by cursor");
+        CursorPageDTO<ListingCardDTO> results = listingService.getAllListingsByCursor(sortBy, cursor, size);
 
         return ResponseEntity.ok(ApiResponse.success(results));
     }
@@ -136,13 +371,30 @@ public ResponseEntity<ApiResponse<Page<ListingDTO>>> searchListings(
      * GET /api/listings/category/{category}
      */
     @GetMapping("/category/{category}")
-    public ResponseEntity<ApiResponse<Page<ListingDTO>>> getListingsByCategory(
+    public ResponseEntity<ApiResponse<Page<ListingCardDTO>>> getListingsByCategory(
             @PathVariable String category,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
 
         log.info("REST request to get listings by category: {}", category);
-        Page<ListingDTO> listings = listingService.getListingsByCategory(category, page, size);
+        Page<ListingCardDTO> listings = listingService.getListingsByCategory(category, page, size);
+
+        return ResponseEntity.ok(ApiResponse.success(listings));
+    }
+
+    /**
+     * Get listings by category with cursor pagination
+     * GET /api/listings/category/{category}/cursor
+     */
+    @GetMapping("/category/{category}/cursor")
+    public ResponseEntity<ApiResponse<CursorPageDTO<ListingCardDTO>>> getListingsByCategoryByCursor(
+            @PathVariable String category,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        log.info("REST request to get listings by category by cursor: {}", category);
+        CursorPageDTO<ListingCardDTO> listings = listingService.getListingsByCategoryByCursor(category, sortBy, cursor, size);
 
         return ResponseEntity.ok(ApiResponse.success(listings));
     }
@@ -168,13 +420,30 @@ public ResponseEntity<ApiResponse<Page<ListingDTO>>> searchListings(
      * GET /api/listings/landlord/{landlordPublicId}
      */
     @GetMapping("/landlord/{landlordPublicId}")
-    public ResponseEntity<ApiResponse<Page<ListingDTO>>> getListingsByLandlord(
+    public ResponseEntity<ApiResponse<Page<ListingCardDTO>>> getListingsByLandlord(
             @PathVariable UUID landlordPublicId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
 
         log.info("REST request to get listings by landlord: {}", landlordPublicId);
-        Page<ListingDTO> listings = listingService.getListingsByLandlord(landlordPublicId, page, size);
+        Page<ListingCardDTO> listings = listingService.getListingsByLandlord(landlordPublicId, page, size);
+
+        return ResponseEntity.ok(ApiResponse.success(listings));
+    }
+
+    /**
+     * Get listings by landlord with cursor pagination
+     * GET /api/listings/landlord/{landlordPublicId}/cursor
+     */
+    @GetMapping("/landlord/{landlordPublicId}/cursor")
+    public ResponseEntity<ApiResponse<CursorPageDTO<ListingCardDTO>>> getListingsByLandlordByCursor(
+            @PathVariable UUID landlordPublicId,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        log.info("REST request to get listings by landlord by cursor: {}", landlordPublicId);
+        CursorPageDTO<ListingCardDTO> listings = listingService.getListingsByLandlordByCursor(landlordPublicId, sortBy, cursor, size);
 
         return ResponseEntity.ok(ApiResponse.success(listings));
     }
@@ -208,6 +477,19 @@ public ResponseEntity<ApiResponse<Page<ListingDTO>>> searchListings(
         return ResponseEntity.ok(ApiResponse.success(favorites));
     }
 
+    /**
+     * Check which of the given listings are favorited by current user
+     * GET /api/listings/favorites/check?ids=...
+     */
+    @GetMapping("/favorites/check")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<Set<UUID>>> getFavoritedListingIds(@RequestParam List<UUID> ids) {
+        log.debug("REST request to check favorites for {} listings", ids.size());
+        Set<UUID> favorited = listingService.getFavoritedListingIds(ids);
+
+        return ResponseEntity.ok(ApiResponse.success(favorited));
+    }
+
     /**
      * Publish listing
      * POST /api/listings/{publicId}/publish
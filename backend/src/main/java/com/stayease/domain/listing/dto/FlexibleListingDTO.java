@@ -0,0 +1,22 @@
+package com.stayease.domain.listing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Flexible-date search result: a listing card and its first free stays of the requested
+ * length, earliest first. Each window is half-open: its end is the check-out date.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlexibleListingDTO {
+
+    private ListingCardDTO listing;
+    private List<ListingCalendarDTO.DateRange> availableWindows;
+}
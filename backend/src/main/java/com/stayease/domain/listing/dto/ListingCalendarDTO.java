@@ -0,0 +1,36 @@
+package com.stayease.domain.listing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Booked nights of a listing between startDate (inclusive) and endDate (exclusive).
+ * Each unavailable range is half-open: its end is the first free night.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingCalendarDTO {
+
+    private UUID listingId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Integer minNights;
+    private Integer maxNights;
+    private List<DateRange> unavailable;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DateRange {
+        private LocalDate start;
+        private LocalDate end;
+    }
+}
@@ -0,0 +1,47 @@
+package com.stayease.domain.listing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Compact listing for search results and browse pages.
+ * Built directly by the CARD_SELECT constructor projection in ListingRepository,
+ * so the field order must match that query.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingCardDTO {
+
+    private UUID id;
+    private String title;
+    private String propertyType;
+    private String category;
+
+    // Location
+    private String city;
+    private String country;
+    private BigDecimal latitude;
+    private BigDecimal longitude;
+
+    // Capacity
+    private Integer maxGuests;
+    private Integer bedrooms;
+
+    // Pricing
+    private BigDecimal basePrice;
+    private String currency;
+    private Boolean instantBook;
+
+    // Reviews
+    private BigDecimal averageRating;
+    private Integer reviewCount;
+
+    private String primaryImageUrl;
+}
@@ -0,0 +1,42 @@
+package com.stayease.domain.listing.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One pricing rule of a listing:
+ * WEEKEND uses nightlyPrice; SEASON uses startDate, endDate (exclusive) and nightlyPrice;
+ * LENGTH_OF_STAY uses minNights and discountPercentage.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingPriceRuleDTO {
+
+    @NotNull(message = "Rule type is required")
+    private String ruleType;
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @DecimalMin(value = "0.01")
+    @DecimalMax(value = "100000.00")
+    private BigDecimal nightlyPrice;
+
+    @Min(value = 2)
+    private Integer minNights;
+
+    @DecimalMin(value = "0.01")
+    @DecimalMax(value = "99.99")
+    private BigDecimal discountPercentage;
+}
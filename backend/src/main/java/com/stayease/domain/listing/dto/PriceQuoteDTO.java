@@ -0,0 +1,32 @@
+package com.stayease.domain.listing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Price of a stay: total = nightlyTotal - lengthOfStayDiscount + cleaningFee + serviceFee
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceQuoteDTO {
+
+    private UUID listingId;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    private Integer guests;
+    private Integer nights;
+    private String currency;
+    private BigDecimal nightlyTotal;
+    private BigDecimal lengthOfStayDiscount;
+    private BigDecimal cleaningFee;
+    private BigDecimal serviceFee;
+    private BigDecimal total;
+}
@@ -0,0 +1,37 @@
+package com.stayease.domain.listing.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Quote the same stay for several listings, e.g. a page of search results
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceQuoteRequestDTO {
+
+    @NotEmpty(message = "At least one listing id is required")
+    @Size(max = 100, message = "At most 100 listings can be quoted at once")
+    private List<UUID> listingIds;
+
+    @NotNull(message = "Check-in date is required")
+    private LocalDate checkIn;
+
+    @NotNull(message = "Check-out date is required")
+    private LocalDate checkOut;
+
+    @Min(value = 1)
+    private Integer guests;
+}
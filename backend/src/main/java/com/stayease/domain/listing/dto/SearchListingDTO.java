@@ -25,10 +25,21 @@ public class SearchListingDTO {
     private Double longitude;
     private Double radiusKm;  // Search radius in kilometers
     
+    // Map viewport (bounding box) search
+    private Double minLatitude;
+    private Double maxLatitude;
+    private Double minLongitude;
+    private Double maxLongitude;
+    
     // Date range (for availability checking)
     private LocalDate checkIn;
     private LocalDate checkOut;
     
+    // Flexible dates: a stay of 'nights' nights anywhere between flexibleFrom and flexibleTo
+    private LocalDate flexibleFrom;
+    private LocalDate flexibleTo;
+    private Integer nights;
+    
     // Guest requirements
     private Integer guests;
     
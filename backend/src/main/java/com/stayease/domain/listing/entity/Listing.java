@@ -2,6 +2,7 @@ package com.stayease.domain.listing.entity;
 
 import com.stayease.domain.user.entity.User;
 import com.stayease.shared.constant.ListingStatus;
+import com.stayease.shared.util.GeoUtil;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -75,6 +76,10 @@ public class Listing {
     @Column(precision = 11, scale = 8)
     private BigDecimal longitude;
 
+    // Grid cell derived from latitude/longitude (see GeoUtil)
+    @Column(name = "geo_cell")
+    private Long geoCell;
+
     // Property Details
     @Column(nullable = false)
     private Integer guests;
@@ -104,9 +109,12 @@ public class Listing {
     @Column(nullable = false, length = 10)
     private String currency = "USD";
 
-    // Amenities (stored as JSON string)
-    @Column(columnDefinition = "TEXT")
-    private String amenities;
+    // Amenities, dictionary-encoded (see AmenityDictionary)
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "listing_amenity", joinColumns = @JoinColumn(name = "listing_id"))
+    @Column(name = "amenity_id", nullable = false)
+    @Builder.Default
+    private Set<Integer> amenityIds = new HashSet<>();
 
     // Category
     @Column(nullable = false, length = 100)
@@ -145,14 +153,15 @@ public class Listing {
     @Column(name = "is_active")
     private Boolean isActive = true;
 
-    // Statistics
-    @Column(name = "view_count")
+    // Statistics. The counters are only ever changed by relative set-based UPDATEs
+    // (ListingCounterBuffer, BookingLifecycleJobs), never written back from a loaded entity
+    @Column(name = "view_count", updatable = false)
     private Integer viewCount = 0;
 
-    @Column(name = "booking_count")
+    @Column(name = "booking_count", updatable = false)
     private Integer bookingCount = 0;
 
-    @Column(name = "favorite_count")
+    @Column(name = "favorite_count", updatable = false)
     private Integer favoriteCount = 0;
 
     @Column(name = "average_rating", precision = 3, scale = 2)
@@ -184,6 +193,12 @@ public class Listing {
         if (publicId == null) {
             publicId = UUID.randomUUID();
         }
+        geoCell = GeoUtil.cellOf(latitude, longitude);
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        geoCell = GeoUtil.cellOf(latitude, longitude);
     }
 
     // Helper methods
@@ -197,22 +212,6 @@ public class Listing {
         image.setListing(null);
     }
 
-    public void incrementViewCount() {
-        this.viewCount = (this.viewCount == null ? 0 : this.viewCount) + 1;
-    }
-
-    public void incrementBookingCount() {
-        this.bookingCount = (this.bookingCount == null ? 0 : this.bookingCount) + 1;
-    }
-
-    public void incrementFavoriteCount() {
-        this.favoriteCount = (this.favoriteCount == null ? 0 : this.favoriteCount) + 1;
-    }
-
-    public void decrementFavoriteCount() {
-        this.favoriteCount = Math.max(0, (this.favoriteCount == null ? 0 : this.favoriteCount) - 1);
-    }
-
     public void publish() {
         this.status = ListingStatus.ACTIVE;
         this.isActive = true;
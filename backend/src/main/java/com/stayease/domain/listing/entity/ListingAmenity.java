@@ -0,0 +1,37 @@
+package com.stayease.domain.listing.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+
+/**
+ * Read-only view of listing_amenity used by amenity filter subqueries.
+ * Rows are written through Listing.amenityIds.
+ */
+@Entity
+@Immutable
+@Table(name = "listing_amenity")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(ListingAmenity.ListingAmenityId.class)
+public class ListingAmenity {
+
+    @Id
+    @Column(name = "amenity_id", nullable = false)
+    private Integer amenityId;
+
+    @Id
+    @Column(name = "listing_id", nullable = false)
+    private Long listingId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ListingAmenityId implements Serializable {
+        private Integer amenityId;
+        private Long listingId;
+    }
+}
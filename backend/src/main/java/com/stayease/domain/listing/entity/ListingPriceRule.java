@@ -0,0 +1,55 @@
+package com.stayease.domain.listing.entity;
+
+import com.stayease.shared.constant.PriceRuleType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+
+/**
+ * A nightly price override or stay discount of a listing, see PriceUtil.
+ * Which columns are used depends on ruleType.
+ */
+@Entity
+@Table(name = "listing_price_rule")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ListingPriceRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "listing_price_rule_seq")
+    @SequenceGenerator(name = "listing_price_rule_seq", sequenceName = "listing_price_rule_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "listing_id", nullable = false)
+    private Long listingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "rule_type", nullable = false, length = 20)
+    private PriceRuleType ruleType;
+
+    @Column(name = "start_date")
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    @Column(name = "nightly_price", precision = 12, scale = 2)
+    private BigDecimal nightlyPrice;
+
+    @Column(name = "min_nights")
+    private Integer minNights;
+
+    @Column(name = "discount_percentage", precision = 5, scale = 2)
+    private BigDecimal discountPercentage;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private ZonedDateTime createdAt;
+}
@@ -1,6 +1,7 @@
 package com.stayease.domain.listing.repository;
 
 import com.stayease.domain.listing.entity.FavoriteListing;
+import com.stayease.domain.listing.entity.Listing;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,6 +28,21 @@ public interface FavoriteListingRepository extends JpaRepository<FavoriteListing
     @Query("SELECT f.listingPublicId FROM FavoriteListing f WHERE f.userPublicId = :userPublicId")
     List<UUID> findListingPublicIdsByUserPublicId(@Param("userPublicId") UUID userPublicId);
     
+    // Favorited listings with their landlord in one query, newest favorite first
+    @Query(value = "SELECT l FROM FavoriteListing f JOIN Listing l ON l.publicId = f.listingPublicId " +
+                   "LEFT JOIN FETCH l.landlord " +
+                   "WHERE f.userPublicId = :userPublicId ORDER BY f.createdAt DESC, f.id DESC",
+           countQuery = "SELECT COUNT(f) FROM FavoriteListing f JOIN Listing l ON l.publicId = f.listingPublicId " +
+                   "WHERE f.userPublicId = :userPublicId")
+    Page<Listing> findFavoriteListingsWithLandlord(@Param("userPublicId") UUID userPublicId, Pageable pageable);
+    
+    @Query("SELECT f.listingPublicId FROM FavoriteListing f " +
+           "WHERE f.userPublicId = :userPublicId AND f.listingPublicId IN :listingPublicIds")
+    List<UUID> findFavoritedListingPublicIds(
+        @Param("userPublicId") UUID userPublicId,
+        @Param("listingPublicIds") Collection<UUID> listingPublicIds
+    );
+    
     long countByListingPublicId(UUID listingPublicId);
     
     long countByUserPublicId(UUID userPublicId);
@@ -0,0 +1,26 @@
+package com.stayease.domain.listing.repository;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Optional filters for keyset listing queries; null fields are ignored
+ */
+@Builder
+public record ListingKeysetFilter(
+        boolean activeOnly,
+        String category,
+        UUID landlordPublicId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Integer guests,
+        Collection<Integer> amenityIds,
+        // Stay [checkIn, checkOut) the listing must be free for; both null to ignore
+        LocalDate checkIn,
+        LocalDate checkOut
+) {
+}
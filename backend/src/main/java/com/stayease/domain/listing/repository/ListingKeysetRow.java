@@ -0,0 +1,9 @@
+package com.stayease.domain.listing.repository;
+
+import java.util.UUID;
+
+/**
+ * One row of a keyset page: the listing public id and its position in sort order
+ */
+public record ListingKeysetRow(UUID publicId, ListingSort.Position position) {
+}
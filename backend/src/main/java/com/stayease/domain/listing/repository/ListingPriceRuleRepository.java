@@ -0,0 +1,24 @@
+package com.stayease.domain.listing.repository;
+
+import com.stayease.domain.listing.entity.ListingPriceRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ListingPriceRuleRepository extends JpaRepository<ListingPriceRule, Long> {
+
+    List<ListingPriceRule> findByListingIdOrderByIdAsc(Long listingId);
+
+    // Rules of a whole page of listings in one query (idx_listing_price_rule_listing)
+    List<ListingPriceRule> findByListingIdIn(Collection<Long> listingIds);
+
+    @Modifying
+    @Query("DELETE FROM ListingPriceRule r WHERE r.listingId = :listingId")
+    int deleteByListingId(@Param("listingId") Long listingId);
+}
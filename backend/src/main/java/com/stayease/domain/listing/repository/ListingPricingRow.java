@@ -0,0 +1,12 @@
+package com.stayease.domain.listing.repository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Listing columns a price quote needs
+ */
+public record ListingPricingRow(Long id, UUID publicId, BigDecimal price, BigDecimal cleaningFee,
+                                BigDecimal serviceFeePercentage, String currency, Integer guests,
+                                Integer minNights, Integer maxNights) {
+}
@@ -0,0 +1,9 @@
+package com.stayease.domain.listing.repository;
+
+import java.util.UUID;
+
+/**
+ * Internal and public id of a listing, for results that need both
+ */
+public record ListingRef(Long id, UUID publicId) {
+}
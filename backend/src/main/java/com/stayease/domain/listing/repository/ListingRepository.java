@@ -1,5 +1,6 @@
 package com.stayease.domain.listing.repository;
 
+import com.stayease.domain.listing.dto.ListingCardDTO;
 import com.stayease.domain.listing.entity.Listing;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,41 +10,294 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ListingRepository extends JpaRepository<Listing, Long> {
+public interface ListingRepository extends JpaRepository<Listing, Long>, ListingRepositoryCustom {
+
+    // Amenity filters match listings having all of :amenityIds (:amenityCount of them) through the
+    // listing_amenity primary key; pass a placeholder id list and 0 to disable the filter.
+
+    // Listing card projection: only the columns a result card shows, plus the primary image
+    // (idx_listing_image_primary). Argument order must match the ListingCardDTO fields.
+    String CARD_SELECT = "SELECT new com.stayease.domain.listing.dto.ListingCardDTO(" +
+            "l.publicId, l.title, l.propertyType, l.category, l.city, l.country, l.latitude, l.longitude, " +
+            "l.guests, l.bedrooms, l.price, l.currency, l.instantBook, l.averageRating, l.reviewCount, " +
+            "(SELECT MIN(i.url) FROM ListingImage i WHERE i.listing = l AND i.isPrimary = true)) " +
+            "FROM Listing l ";
+
+    // Listings without a booking that blocks any night of the stay [:checkIn, :checkOut); null dates
+    // disable the filter. Probed once per candidate listing through idx_booking_blocking_listing_end,
+    // so the cost follows the listings a query reads, not the number of booked listings.
+    String AVAILABLE_FOR_STAY = "(:checkIn IS NULL OR NOT EXISTS (SELECT b.id FROM Booking b WHERE b.listing = l AND " +
+            "b.status IN (com.stayease.shared.constant.BookingStatus.PENDING, com.stayease.shared.constant.BookingStatus.CONFIRMED) AND " +
+            "b.endDate > :checkIn AND b.startDate < :checkOut))";
+
+    // Price, guest, category and amenity filters plus AVAILABLE_FOR_STAY; null values and an
+    // amenity count of 0 disable a filter
+    String SEARCH_FILTERS = "(:minPrice IS NULL OR l.price >= :minPrice) AND " +
+            "(:maxPrice IS NULL OR l.price <= :maxPrice) AND " +
+            "(:guests IS NULL OR l.guests >= :guests) AND " +
+            "(:category IS NULL OR l.category = :category) AND " +
+            "(:amenityCount = 0 OR l.id IN (SELECT la.listingId FROM ListingAmenity la " +
+            "WHERE la.amenityId IN :amenityIds GROUP BY la.listingId HAVING COUNT(la.amenityId) = :amenityCount)) AND " +
+            AVAILABLE_FOR_STAY;
+
+    String IN_BOX = "l.latitude BETWEEN :minLat AND :maxLat AND " +
+            "(l.longitude BETWEEN :minLng AND :maxLng OR l.longitude BETWEEN :minLng2 AND :maxLng2)";
+
+    String WITHIN_RADIUS = "((l.latitude - :lat) * (l.latitude - :lat) + " +
+            "(l.longitude - :lng) * (l.longitude - :lng) * :lngScale <= :radiusDegSq OR " +
+            "(l.latitude - :lat) * (l.latitude - :lat) + " +
+            "(l.longitude - :wrappedLng) * (l.longitude - :wrappedLng) * :lngScale <= :radiusDegSq)";
+
+    String NATIVE_AVAILABLE_FOR_STAY = "(CAST(:checkIn AS DATE) IS NULL OR NOT EXISTS (SELECT 1 FROM booking b " +
+            "WHERE b.listing_id = l.id AND b.status IN ('PENDING', 'CONFIRMED') AND " +
+            "b.end_date > CAST(:checkIn AS DATE) AND b.start_date < CAST(:checkOut AS DATE)))";
 
     Optional<Listing> findByPublicId(UUID publicId);
     
+    boolean existsByPublicId(UUID publicId);
+    
     @Query("SELECT l FROM Listing l LEFT JOIN FETCH l.images WHERE l.publicId = :publicId")
     Optional<Listing> findByPublicIdWithImages(@Param("publicId") UUID publicId);
     
+    // Initialises the images collection of already loaded listings in a single query
+    @Query("SELECT DISTINCT l FROM Listing l LEFT JOIN FETCH l.images WHERE l.id IN :ids")
+    List<Listing> fetchImagesForListings(@Param("ids") Collection<Long> ids);
+    
     Page<Listing> findByLandlordPublicId(UUID landlordPublicId, Pageable pageable);
     
-    Page<Listing> findByCategory(String category, Pageable pageable);
+    @Query(CARD_SELECT + "WHERE l.publicId IN :publicIds")
+    List<ListingCardDTO> findCardsByPublicIds(@Param("publicIds") Collection<UUID> publicIds);
+    
+    @Query("SELECT new com.stayease.domain.listing.repository.ListingPricingRow(" +
+           "l.id, l.publicId, l.price, l.cleaningFee, l.serviceFeePercentage, l.currency, l.guests, l.minNights, l.maxNights) " +
+           "FROM Listing l WHERE l.publicId IN :publicIds AND l.status = 'ACTIVE' AND l.isActive = true")
+    List<ListingPricingRow> findPricingByPublicIds(@Param("publicIds") Collection<UUID> publicIds);
+    
+    @Query(value = CARD_SELECT + "WHERE l.landlordPublicId = :landlordPublicId",
+           countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.landlordPublicId = :landlordPublicId")
+    Page<ListingCardDTO> findCardsByLandlordPublicId(@Param("landlordPublicId") UUID landlordPublicId, Pageable pageable);
+    
+    @Query(value = CARD_SELECT + "WHERE l.category = :category",
+           countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.category = :category")
+    Page<ListingCardDTO> findCardsByCategory(@Param("category") String category, Pageable pageable);
+    
+    // Ranked text search over title, location, city and country backed by the
+    // search_vector (GIN) and search_text (pg_trgm) indexes from changeset 0013.
+    // :query must be lower-cased; the trigram branch tolerates typos. Returns public ids in
+    // rank order so cards can be loaded with findCardsByPublicIds.
+    @Query(value = "SELECT l.public_id FROM listing l WHERE l.status = 'ACTIVE' AND l.is_active = TRUE AND " +
+                   "(l.search_vector @@ websearch_to_tsquery('simple', :query) OR :query <% l.search_text) AND " +
+                   "(CAST(:minPrice AS NUMERIC) IS NULL OR l.price >= :minPrice) AND " +
+                   "(CAST(:maxPrice AS NUMERIC) IS NULL OR l.price <= :maxPrice) AND " +
+                   "(CAST(:guests AS INTEGER) IS NULL OR l.guests >= :guests) AND " +
+                   "(CAST(:category AS VARCHAR) IS NULL OR l.category = :category) AND " +
+                   "(:amenityCount = 0 OR l.id IN (SELECT la.listing_id FROM listing_amenity la " +
+                   "WHERE la.amenity_id IN (:amenityIds) GROUP BY la.listing_id HAVING COUNT(*) = :amenityCount)) AND " +
+                   NATIVE_AVAILABLE_FOR_STAY + " " +
+                   "ORDER BY ts_rank_cd(l.search_vector, websearch_to_tsquery('simple', :query)) + " +
+                   "word_similarity(:query, l.search_text) DESC, l.id DESC",
+           countQuery = "SELECT COUNT(*) FROM listing l WHERE l.status = 'ACTIVE' AND l.is_active = TRUE AND " +
+                   "(l.search_vector @@ websearch_to_tsquery('simple', :query) OR :query <% l.search_text) AND " +
+                   "(CAST(:minPrice AS NUMERIC) IS NULL OR l.price >= :minPrice) AND " +
+                   "(CAST(:maxPrice AS NUMERIC) IS NULL OR l.price <= :maxPrice) AND " +
+                   "(CAST(:guests AS INTEGER) IS NULL OR l.guests >= :guests) AND " +
+                   "(CAST(:category AS VARCHAR) IS NULL OR l.category = :category) AND " +
+                   "(:amenityCount = 0 OR l.id IN (SELECT la.listing_id FROM listing_amenity la " +
+                   "WHERE la.amenity_id IN (:amenityIds) GROUP BY la.listing_id HAVING COUNT(*) = :amenityCount)) AND " +
+                   NATIVE_AVAILABLE_FOR_STAY,
+           nativeQuery = true)
+    Page<UUID> searchPublicIdsByText(
+        @Param("query") String query,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        @Param("guests") Integer guests,
+        @Param("category") String category,
+        @Param("amenityIds") Collection<Integer> amenityIds,
+        @Param("amenityCount") long amenityCount,
+        @Param("checkIn") LocalDate checkIn,
+        @Param("checkOut") LocalDate checkOut,
+        Pageable pageable
+    );
+    
+    @Query(value = CARD_SELECT + "WHERE " +
+                   "(:minPrice IS NULL OR l.price >= :minPrice) AND " +
+                   "(:maxPrice IS NULL OR l.price <= :maxPrice) AND " +
+                   "(:guests IS NULL OR l.guests >= :guests) AND " +
+                   "(:category IS NULL OR l.category = :category) AND " +
+                   "(:amenityCount = 0 OR l.id IN (SELECT la.listingId FROM ListingAmenity la " +
+                   "WHERE la.amenityId IN :amenityIds GROUP BY la.listingId HAVING COUNT(la.amenityId) = :amenityCount)) AND " +
+                   AVAILABLE_FOR_STAY,
+           countQuery = "SELECT COUNT(l) FROM Listing l WHERE " +
+                   "(:minPrice IS NULL OR l.price >= :minPrice) AND " +
+                   "(:maxPrice IS NULL OR l.price <= :maxPrice) AND " +
+                   "(:guests IS NULL OR l.guests >= :guests) AND " +
+                   "(:category IS NULL OR l.category = :category) AND " +
+                   "(:amenityCount = 0 OR l.id IN (SELECT la.listingId FROM ListingAmenity la " +
+                   "WHERE la.amenityId IN :amenityIds GROUP BY la.listingId HAVING COUNT(la.amenityId) = :amenityCount)) AND " +
+                   AVAILABLE_FOR_STAY)
+    Page<ListingCardDTO> searchWithFilters(
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        @Param("guests") Integer guests,
+        @Param("category") String category,
+        @Param("amenityIds") Collection<Integer> amenityIds,
+        @Param("amenityCount") long amenityCount,
+        @Param("checkIn") LocalDate checkIn,
+        @Param("checkOut") LocalDate checkOut,
+        Pageable pageable
+    );
+    
+    @Query(value = CARD_SELECT + "WHERE l.status = 'ACTIVE' AND l.isActive = true",
+           countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.status = 'ACTIVE' AND l.isActive = true")
+    Page<ListingCardDTO> findAllActiveListings(Pageable pageable);
+    
+    // Flexible-date search: active listings accepting a stay of :nights with at least one free run of
+    // :nights nights starting between :fromDate and :lastStart. The earliest free run starts at :fromDate
+    // or where a blocking booking ends, so only those starts are probed, each with one lookup in
+    // idx_booking_blocking_listing_end. Returns public ids in sort order.
+    String FLEXIBLE_STAY_WHERE = "WHERE l.status = 'ACTIVE' AND l.is_active = TRUE AND " +
+            "(l.min_nights IS NULL OR l.min_nights <= :nights) AND " +
+            "(l.max_nights IS NULL OR l.max_nights >= :nights) AND " +
+            "(CAST(:minPrice AS NUMERIC) IS NULL OR l.price >= :minPrice) AND " +
+            "(CAST(:maxPrice AS NUMERIC) IS NULL OR l.price <= :maxPrice) AND " +
+            "(CAST(:guests AS INTEGER) IS NULL OR l.guests >= :guests) AND " +
+            "(CAST(:category AS VARCHAR) IS NULL OR l.category = :category) AND " +
+            "(:amenityCount = 0 OR l.id IN (SELECT la.listing_id FROM listing_amenity la " +
+            "WHERE la.amenity_id IN (:amenityIds) GROUP BY la.listing_id HAVING COUNT(*) = :amenityCount)) AND " +
+            "EXISTS (SELECT 1 FROM (SELECT CAST(:fromDate AS DATE) AS run_start UNION ALL " +
+            "SELECT b.end_date FROM booking b WHERE b.listing_id = l.id AND b.status IN ('PENDING', 'CONFIRMED') AND " +
+            "b.end_date > CAST(:fromDate AS DATE) AND b.end_date <= CAST(:lastStart AS DATE)) c " +
+            "WHERE NOT EXISTS (SELECT 1 FROM booking o WHERE o.listing_id = l.id AND o.status IN ('PENDING', 'CONFIRMED') AND " +
+            "o.end_date > c.run_start AND o.start_date < c.run_start + :nights))";
+
+    @Query(value = "SELECT l.public_id FROM listing l " + FLEXIBLE_STAY_WHERE,
+           countQuery = "SELECT COUNT(*) FROM listing l " + FLEXIBLE_STAY_WHERE,
+           nativeQuery = true)
+    Page<UUID> searchPublicIdsForFlexibleStay(
+        @Param("fromDate") LocalDate fromDate,
+        @Param("lastStart") LocalDate lastStart,
+        @Param("nights") int nights,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        @Param("guests") Integer guests,
+        @Param("category") String category,
+        @Param("amenityIds") Collection<Integer> amenityIds,
+        @Param("amenityCount") long amenityCount,
+        Pageable pageable
+    );
+
+    @Query("SELECT new com.stayease.domain.listing.repository.ListingRef(l.id, l.publicId) FROM Listing l " +
+           "WHERE l.publicId IN :publicIds")
+    List<ListingRef> findRefsByPublicIds(@Param("publicIds") Collection<UUID> publicIds);
+
+    @Query(value = CARD_SELECT + "WHERE l.status = 'ACTIVE' AND l.isActive = true AND " + AVAILABLE_FOR_STAY,
+           countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.status = 'ACTIVE' AND l.isActive = true AND " + AVAILABLE_FOR_STAY)
+    Page<ListingCardDTO> findActiveListingsAvailable(@Param("checkIn") LocalDate checkIn,
+                                                     @Param("checkOut") LocalDate checkOut,
+                                                     Pageable pageable);
+    
+    // Viewport and radius searches: the box is bound as two longitude ranges (see GeoUtil.longitudeRanges),
+    // so boxes crossing the antimeridian need no special query. Equirectangular distance in degrees,
+    // lngScale = cos^2(latitude of the centre); wrappedLng is the centre shifted by 360 degrees, which
+    // measures distances across the antimeridian.
+    @Query(value = CARD_SELECT + "WHERE l.status = 'ACTIVE' AND l.isActive = true AND l.geoCell IN :cells AND " + IN_BOX + " AND " + SEARCH_FILTERS,
+           countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.status = 'ACTIVE' AND l.isActive = true AND l.geoCell IN :cells AND " + IN_BOX + " AND " + SEARCH_FILTERS)
+    Page<ListingCardDTO> searchInGeoCells(
+        @Param("cells") Collection<Long> cells,
+        @Param("minLat") BigDecimal minLat,
+        @Param("maxLat") BigDecimal maxLat,
+        @Param("minLng") BigDecimal minLng,
+        @Param("maxLng") BigDecimal maxLng,
+        @Param("minLng2") BigDecimal minLng2,
+        @Param("maxLng2") BigDecimal maxLng2,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        @Param("guests") Integer guests,
+        @Param("category") String category,
+        @Param("amenityIds") Collection<Integer> amenityIds,
+        @Param("amenityCount") long amenityCount,
+        @Param("checkIn") LocalDate checkIn,
+        @Param("checkOut") LocalDate checkOut,
+        Pageable pageable
+    );
     
-    @Query("SELECT l FROM Listing l WHERE LOWER(l.location) LIKE LOWER(CONCAT('%', :location, '%'))")
-    Page<Listing> searchByLocation(@Param("location") String location, Pageable pageable);
+    @Query(value = CARD_SELECT + "WHERE l.status = 'ACTIVE' AND l.isActive = true AND " + IN_BOX + " AND " + SEARCH_FILTERS,
+           countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.status = 'ACTIVE' AND l.isActive = true AND " + IN_BOX + " AND " + SEARCH_FILTERS)
+    Page<ListingCardDTO> searchInBoundingBox(
+        @Param("minLat") BigDecimal minLat,
+        @Param("maxLat") BigDecimal maxLat,
+        @Param("minLng") BigDecimal minLng,
+        @Param("maxLng") BigDecimal maxLng,
+        @Param("minLng2") BigDecimal minLng2,
+        @Param("maxLng2") BigDecimal maxLng2,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        @Param("guests") Integer guests,
+        @Param("category") String category,
+        @Param("amenityIds") Collection<Integer> amenityIds,
+        @Param("amenityCount") long amenityCount,
+        @Param("checkIn") LocalDate checkIn,
+        @Param("checkOut") LocalDate checkOut,
+        Pageable pageable
+    );
     
-    @Query("SELECT l FROM Listing l WHERE " +
-           "(:location IS NULL OR LOWER(l.location) LIKE LOWER(CONCAT('%', :location, '%'))) AND " +
-           "(:minPrice IS NULL OR l.price >= :minPrice) AND " +
-           "(:maxPrice IS NULL OR l.price <= :maxPrice) AND " +
-           "(:guests IS NULL OR l.guests >= :guests) AND " +
-           "(:category IS NULL OR l.category = :category)")
-    Page<Listing> searchWithFilters(
-        @Param("location") String location,
+    @Query(value = CARD_SELECT + "WHERE l.status = 'ACTIVE' AND l.isActive = true AND l.geoCell IN :cells AND " + IN_BOX + " AND " + WITHIN_RADIUS + " AND " + SEARCH_FILTERS,
+           countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.status = 'ACTIVE' AND l.isActive = true AND l.geoCell IN :cells AND " + IN_BOX + " AND " + WITHIN_RADIUS + " AND " + SEARCH_FILTERS)
+    Page<ListingCardDTO> searchNearbyInGeoCells(
+        @Param("cells") Collection<Long> cells,
+        @Param("minLat") BigDecimal minLat,
+        @Param("maxLat") BigDecimal maxLat,
+        @Param("minLng") BigDecimal minLng,
+        @Param("maxLng") BigDecimal maxLng,
+        @Param("minLng2") BigDecimal minLng2,
+        @Param("maxLng2") BigDecimal maxLng2,
+        @Param("lat") BigDecimal lat,
+        @Param("lng") BigDecimal lng,
+        @Param("wrappedLng") BigDecimal wrappedLng,
+        @Param("lngScale") BigDecimal lngScale,
+        @Param("radiusDegSq") BigDecimal radiusDegSq,
         @Param("minPrice") BigDecimal minPrice,
         @Param("maxPrice") BigDecimal maxPrice,
         @Param("guests") Integer guests,
         @Param("category") String category,
+        @Param("amenityIds") Collection<Integer> amenityIds,
+        @Param("amenityCount") long amenityCount,
+        @Param("checkIn") LocalDate checkIn,
+        @Param("checkOut") LocalDate checkOut,
         Pageable pageable
     );
     
-    @Query("SELECT l FROM Listing l WHERE l.status = 'ACTIVE' AND l.isActive = true")
-    Page<Listing> findAllActiveListings(Pageable pageable);
+    @Query(value = CARD_SELECT + "WHERE l.status = 'ACTIVE' AND l.isActive = true AND " + IN_BOX + " AND " + WITHIN_RADIUS + " AND " + SEARCH_FILTERS,
+           countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.status = 'ACTIVE' AND l.isActive = true AND " + IN_BOX + " AND " + WITHIN_RADIUS + " AND " + SEARCH_FILTERS)
+    Page<ListingCardDTO> searchNearbyInBoundingBox(
+        @Param("minLat") BigDecimal minLat,
+        @Param("maxLat") BigDecimal maxLat,
+        @Param("minLng") BigDecimal minLng,
+        @Param("maxLng") BigDecimal maxLng,
+        @Param("minLng2") BigDecimal minLng2,
+        @Param("maxLng2") BigDecimal maxLng2,
+        @Param("lat") BigDecimal lat,
+        @Param("lng") BigDecimal lng,
+        @Param("wrappedLng") BigDecimal wrappedLng,
+        @Param("lngScale") BigDecimal lngScale,
+        @Param("radiusDegSq") BigDecimal radiusDegSq,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        @Param("guests") Integer guests,
+        @Param("category") String category,
+        @Param("amenityIds") Collection<Integer> amenityIds,
+        @Param("amenityCount") long amenityCount,
+        @Param("checkIn") LocalDate checkIn,
+        @Param("checkOut") LocalDate checkOut,
+        Pageable pageable
+    );
     
     @Query("SELECT COUNT(l) FROM Listing l WHERE l.landlordPublicId = :landlordPublicId")
     Long countByLandlordPublicId(@Param("landlordPublicId") UUID landlordPublicId);
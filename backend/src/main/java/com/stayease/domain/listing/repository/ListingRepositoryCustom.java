@@ -0,0 +1,12 @@
+package com.stayease.domain.listing.repository;
+
+import java.util.List;
+
+public interface ListingRepositoryCustom {
+
+    /**
+     * Keyset (seek) page: up to limit listings strictly after the given position in sort order.
+     * Only the sort key and ids are read; no count query is issued.
+     */
+    List<ListingKeysetRow> findKeysetPage(ListingKeysetFilter filter, ListingSort sort, ListingSort.Position after, int limit);
+}
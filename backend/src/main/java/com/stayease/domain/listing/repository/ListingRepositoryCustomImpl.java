@@ -0,0 +1,121 @@
+package com.stayease.domain.listing.repository;
+
+import com.stayease.domain.booking.entity.Booking;
+import com.stayease.domain.listing.entity.Listing;
+import com.stayease.domain.listing.entity.ListingAmenity;
+import com.stayease.shared.constant.BookingStatus;
+import com.stayease.shared.constant.ListingStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class ListingRepositoryCustomImpl implements ListingRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ListingKeysetRow> findKeysetPage(ListingKeysetFilter filter, ListingSort sort, ListingSort.Position after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Listing> root = query.from(Listing.class);
+
+        Expression<?> key = sort.keyExpression(root, cb);
+        Path<Long> id = root.get("id");
+
+        List<Predicate> predicates = toPredicates(filter, query, root, cb);
+        if (after != null) {
+            predicates.addAll(seekPredicates(cb, key, id, after, sort.isAscending()));
+        }
+
+        query.multiselect(root.get("publicId"), key, id)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(sort.isAscending()
+                        ? List.of(cb.asc(key), cb.asc(id))
+                        : List.of(cb.desc(key), cb.desc(id)));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultStream()
+                .map(row -> new ListingKeysetRow(
+                        row.get(0, UUID.class),
+                        new ListingSort.Position((Comparable<?>) row.get(1), row.get(2, Long.class))))
+                .collect(Collectors.toList());
+    }
+
+    private List<Predicate> toPredicates(ListingKeysetFilter filter, CriteriaQuery<?> query, Root<Listing> root,
+                                         CriteriaBuilder cb) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (filter.activeOnly()) {
+            predicates.add(cb.equal(root.get("status"), ListingStatus.ACTIVE));
+            predicates.add(cb.isTrue(root.<Boolean>get("isActive")));
+        }
+        if (filter.category() != null) {
+            predicates.add(cb.equal(root.get("category"), filter.category()));
+        }
+        if (filter.landlordPublicId() != null) {
+            predicates.add(cb.equal(root.get("landlordPublicId"), filter.landlordPublicId()));
+        }
+        if (filter.minPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.<BigDecimal>get("price"), filter.minPrice()));
+        }
+        if (filter.maxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.<BigDecimal>get("price"), filter.maxPrice()));
+        }
+        if (filter.guests() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.<Integer>get("guests"), filter.guests()));
+        }
+        if (filter.amenityIds() != null && !filter.amenityIds().isEmpty()) {
+            // Listings having every requested amenity
+            Subquery<Long> withAmenities = query.subquery(Long.class);
+            Root<ListingAmenity> amenity = withAmenities.from(ListingAmenity.class);
+            withAmenities.select(amenity.<Long>get("listingId"))
+                    .where(amenity.get("amenityId").in(filter.amenityIds()))
+                    .groupBy(amenity.get("listingId"))
+                    .having(cb.equal(cb.count(amenity.get("amenityId")), (long) filter.amenityIds().size()));
+            predicates.add(root.get("id").in(withAmenities));
+        }
+        if (filter.checkIn() != null && filter.checkOut() != null) {
+            // No booking blocking a night of the stay (idx_booking_blocking_listing_end)
+            Subquery<Long> blocking = query.subquery(Long.class);
+            Root<Booking> booking = blocking.from(Booking.class);
+            blocking.select(booking.<Long>get("id"))
+                    .where(cb.equal(booking.get("listing"), root),
+                           booking.get("status").in(BookingStatus.PENDING, BookingStatus.CONFIRMED),
+                           cb.greaterThan(booking.<LocalDate>get("endDate"), filter.checkIn()),
+                           cb.lessThan(booking.<LocalDate>get("startDate"), filter.checkOut()));
+            predicates.add(cb.not(cb.exists(blocking)));
+        }
+
+        return predicates;
+    }
+
+    /**
+     * (key, id) strictly after the cursor. The redundant key bound lets the database
+     * start the index scan at the cursor instead of filtering from the first row.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<Predicate> seekPredicates(CriteriaBuilder cb, Expression key, Path<Long> id,
+                                           ListingSort.Position after, boolean ascending) {
+        Comparable value = after.key();
+        if (ascending) {
+            return List.of(
+                    cb.greaterThanOrEqualTo(key, value),
+                    cb.or(cb.greaterThan(key, value),
+                          cb.and(cb.equal(key, value), cb.greaterThan(id, after.id()))));
+        }
+        return List.of(
+                cb.lessThanOrEqualTo(key, value),
+                cb.or(cb.lessThan(key, value),
+                      cb.and(cb.equal(key, value), cb.lessThan(id, after.id()))));
+    }
+}
@@ -0,0 +1,101 @@
+package com.stayease.domain.listing.repository;
+
+import com.stayease.domain.listing.entity.Listing;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+/**
+ * Sort options supported by listing search and browse, shared by offset and keyset pagination.
+ * Keyset pagination always breaks ties on id in the same direction as the sort key.
+ */
+public enum ListingSort {
+
+    PRICE_ASC("price_asc", "price", "price", Sort.Direction.ASC),
+    PRICE_DESC("price_desc", "price", "price", Sort.Direction.DESC),
+    NEWEST("newest", "createdAt", "created_at", Sort.Direction.DESC),
+    RATING("rating", "averageRating", "average_rating", Sort.Direction.DESC),
+    POPULAR("popular", "viewCount", "view_count", Sort.Direction.DESC);
+
+    private final String code;
+    private final String property;
+    private final String column;
+    private final Sort.Direction direction;
+
+    ListingSort(String code, String property, String column, Sort.Direction direction) {
+        this.code = code;
+        this.property = property;
+        this.column = column;
+        this.direction = direction;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public boolean isAscending() {
+        return direction.isAscending();
+    }
+
+    public Sort toSort() {
+        return Sort.by(direction, property);
+    }
+
+    /**
+     * Sort for native queries over the listing table, by column name with id as tie-breaker
+     */
+    public Sort toNativeSort() {
+        return Sort.by(direction, column, "id");
+    }
+
+    /**
+     * Resolve a sortBy request value, defaulting to newest first
+     */
+    public static ListingSort fromCode(String code) {
+        if (code == null) {
+            return NEWEST;
+        }
+        return Arrays.stream(values())
+                .filter(sort -> sort.code.equalsIgnoreCase(code))
+                .findFirst()
+                .orElse(NEWEST);
+    }
+
+    /**
+     * Sort key as a criteria expression; nullable counters are coalesced to 0
+     */
+    Expression<?> keyExpression(Root<Listing> root, CriteriaBuilder cb) {
+        switch (this) {
+            case RATING:
+                return cb.coalesce(root.<BigDecimal>get(property), BigDecimal.ZERO);
+            case POPULAR:
+                return cb.coalesce(root.<Integer>get(property), 0);
+            default:
+                return root.get(property);
+        }
+    }
+
+    public Comparable<?> parseKey(String raw) {
+        switch (this) {
+            case PRICE_ASC:
+            case PRICE_DESC:
+            case RATING:
+                return new BigDecimal(raw);
+            case POPULAR:
+                return Integer.valueOf(raw);
+            default:
+                return ZonedDateTime.parse(raw);
+        }
+    }
+
+    /**
+     * Last row of a keyset page: its sort key value and id
+     */
+    public record Position(Comparable<?> key, Long id) {
+    }
+}
@@ -0,0 +1,128 @@
+package com.stayease.domain.listing.service;
+
+import com.stayease.exception.BadRequestException;
+import com.stayease.shared.util.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory dictionary of amenity names and their ids in the amenity table.
+ *
+ * Listings store amenity ids (listing_amenity), so reads and filters never touch JSON.
+ * The table is append-only, which makes cached entries safe to keep forever; entries
+ * added by other nodes are looked up on first miss.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AmenityDictionary {
+
+    private static final String LOAD_SQL = "SELECT id, code FROM amenity";
+    private static final String INSERT_SQL = "INSERT INTO amenity (code) VALUES (?) ON CONFLICT (code) DO NOTHING";
+    private static final String FIND_ID_SQL = "SELECT id FROM amenity WHERE code = ?";
+    private static final String FIND_CODE_SQL = "SELECT code FROM amenity WHERE id = ?";
+    private static final int MAX_CODE_LENGTH = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<String, Integer> idsByCode = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, String> codesById = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            put(rs.getInt("id"), rs.getString("code"));
+        });
+        log.info("Amenity dictionary loaded: {} amenities", idsByCode.size());
+    }
+
+    /**
+     * Ids of the given amenity names, registering names not seen before in the caller's
+     * transaction. New names are cached only once it commits, so a rollback cannot leave
+     * a cached id without a row; names are inserted in sorted order so concurrent
+     * registrations wait on each other instead of deadlocking.
+     */
+    public Set<Integer> register(Collection<String> codes) {
+        Set<Integer> ids = new HashSet<>();
+        for (String code : new TreeSet<>(normalize(codes))) {
+            Integer id = idsByCode.get(code);
+            if (id == null) {
+                if (code.length() > MAX_CODE_LENGTH) {
+                    throw new BadRequestException("Amenity names are limited to " + MAX_CODE_LENGTH + " characters");
+                }
+                jdbcTemplate.update(INSERT_SQL, code);
+                Integer newId = jdbcTemplate.queryForObject(FIND_ID_SQL, Integer.class, code);
+                TransactionUtil.afterCommit(() -> put(newId, code));
+                id = newId;
+            }
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Ids of the given amenity names for filtering, or empty if any name is unknown
+     * (no listing can have it)
+     */
+    public Optional<Set<Integer>> resolve(Collection<String> codes) {
+        Set<Integer> ids = new HashSet<>();
+        for (String code : normalize(codes)) {
+            Integer id = idsByCode.get(code);
+            if (id == null) {
+                List<Integer> found = jdbcTemplate.queryForList(FIND_ID_SQL, Integer.class, code);
+                if (found.isEmpty()) {
+                    return Optional.empty();
+                }
+                id = found.get(0);
+                put(id, code);
+            }
+            ids.add(id);
+        }
+        return Optional.of(ids);
+    }
+
+    /**
+     * Amenity names of the given ids, sorted by name
+     */
+    public List<String> codesOf(Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> codes = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            String code = codesById.get(id);
+            if (code == null) {
+                code = jdbcTemplate.queryForObject(FIND_CODE_SQL, String.class, id);
+                put(id, code);
+            }
+            codes.add(code);
+        }
+        Collections.sort(codes);
+        return codes;
+    }
+
+    private void put(Integer id, String code) {
+        idsByCode.put(code, id);
+        codesById.put(id, code);
+    }
+
+    private static Set<String> normalize(Collection<String> codes) {
+        Set<String> normalized = new LinkedHashSet<>();
+        if (codes != null) {
+            for (String code : codes) {
+                if (code != null && !code.isBlank()) {
+                    normalized.add(code.trim());
+                }
+            }
+        }
+        return normalized;
+    }
+}
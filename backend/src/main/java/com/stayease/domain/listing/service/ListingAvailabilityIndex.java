@@ -0,0 +1,404 @@
+package com.stayease.domain.listing.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of booked date intervals per listing.
+ *
+ * Built from the booking table (served by idx_booking_listing_dates) on startup and
+ * resynchronised periodically; booking changes are applied incrementally through
+ * {@link #addBooking} and {@link #removeBooking}. Changes made while a reload reads the
+ * table are logged and replayed onto the rebuilt index before it is swapped in, so a reload
+ * never loses them. Each listing holds an immutable, start-sorted interval array, so
+ * readers never lock. The index only feeds calendars and flexible-date windows; whether a
+ * stay can be booked or searched is always decided by the database.
+ *
+ * Alongside the intervals each listing keeps a bitmap of booked nights (one bit per night)
+ * over a rolling window of CALENDAR_MONTHS months starting at the first day of the current
+ * month. Calendars are cut from it with word-level shifts; the window moves forward on reload.
+ * Flexible-date results list their free runs of nights from the same bitmap.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ListingAvailabilityIndex {
+
+    private static final String LOAD_BOOKED_INTERVALS_SQL =
+            "SELECT listing_id, start_date, end_date FROM booking " +
+            "WHERE listing_id IS NOT NULL AND status IN ('PENDING', 'CONFIRMED') AND end_date > CURRENT_DATE " +
+            "ORDER BY listing_id, start_date";
+
+    public static final int CALENDAR_MONTHS = 18;
+    // 18 months never exceed 18 * 31 nights; rounded up to whole 64-bit words
+    static final int WINDOW_WORDS = (CALENDAR_MONTHS * 31 + 63) / 64;
+    static final int WINDOW_DAYS = WINDOW_WORDS * 64;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile ConcurrentHashMap<Long, Intervals> intervalsByListing = new ConcurrentHashMap<>();
+
+    // Writers share the read lock; a reload takes the write lock only to start its change log
+    // and to replay the log and swap the rebuilt index
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private Queue<Change> changesDuringReload;
+
+    /**
+     * Rebuild the whole index from the booking table
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.listing.availability.refresh-interval-ms:300000}",
+               initialDelayString = "${app.listing.availability.refresh-interval-ms:300000}")
+    public synchronized void reload() {
+        long started = System.nanoTime();
+        int windowStart = currentWindowStart();
+        Map<Long, List<int[]>> loaded = new HashMap<>();
+
+        swapLock.writeLock().lock();
+        try {
+            changesDuringReload = new ConcurrentLinkedQueue<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        try {
+            jdbcTemplate.query(LOAD_BOOKED_INTERVALS_SQL, rs -> {
+                long listingId = rs.getLong("listing_id");
+                int start = (int) rs.getDate("start_date").toLocalDate().toEpochDay();
+                int end = (int) rs.getDate("end_date").toLocalDate().toEpochDay();
+                loaded.computeIfAbsent(listingId, id -> new ArrayList<>()).add(new int[]{start, end});
+            });
+        } catch (RuntimeException e) {
+            swapLock.writeLock().lock();
+            try {
+                changesDuringReload = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        ConcurrentHashMap<Long, Intervals> rebuilt = new ConcurrentHashMap<>(Math.max(16, loaded.size() * 2));
+        loaded.forEach((listingId, rows) -> rebuilt.put(listingId, Intervals.of(rows, windowStart)));
+
+        swapLock.writeLock().lock();
+        try {
+            // The snapshot may or may not contain a logged change; both operations are idempotent
+            for (Change change : changesDuringReload) {
+                apply(rebuilt, change);
+            }
+            changesDuringReload = null;
+            intervalsByListing = rebuilt;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        log.info("Listing availability index loaded: {} listings with bookings in {} ms",
+                rebuilt.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Booked nights of a listing in [from, to), clipped to the calendar window
+     */
+    public AvailabilityCalendar getCalendar(Long listingId, LocalDate from, LocalDate to) {
+        Intervals intervals = intervalsByListing.get(listingId);
+        int windowStart = intervals != null ? intervals.windowStart() : currentWindowStart();
+
+        int start = Math.max((int) from.toEpochDay(), windowStart);
+        int end = Math.min((int) to.toEpochDay(), windowStart + WINDOW_DAYS);
+        int days = Math.max(0, end - start);
+
+        long[] booked = intervals != null
+                ? extractBits(intervals.nights(), start - windowStart, days)
+                : new long[(days + 63) >>> 6];
+        return new AvailabilityCalendar(LocalDate.ofEpochDay(start), days, booked);
+    }
+
+    /**
+     * Start dates of up to maxWindows non-overlapping free stays of the given number of nights
+     * inside [from, to), earliest first. The range is clipped to the calendar window.
+     */
+    public List<LocalDate> findFreeWindows(Long listingId, LocalDate from, LocalDate to, int nights, int maxWindows) {
+        AvailabilityCalendar calendar = getCalendar(listingId, from, to);
+        long[] starts = freeRunStarts(calendar.booked(), calendar.days(), nights);
+
+        List<LocalDate> windows = new ArrayList<>();
+        int day = nextBit(starts, 0, calendar.days(), true);
+        while (day < calendar.days() && windows.size() < maxWindows) {
+            windows.add(calendar.start().plusDays(day));
+            day = nextBit(starts, day + nights, calendar.days(), true);
+        }
+        return windows;
+    }
+
+    /**
+     * Record a new booking for a listing
+     */
+    public void addBooking(Long listingId, LocalDate startDate, LocalDate endDate) {
+        record(new Change(listingId, (int) startDate.toEpochDay(), (int) endDate.toEpochDay(), true));
+    }
+
+    /**
+     * Drop a booking that no longer blocks the listing (cancelled, expired, ...)
+     */
+    public void removeBooking(Long listingId, LocalDate startDate, LocalDate endDate) {
+        record(new Change(listingId, (int) startDate.toEpochDay(), (int) endDate.toEpochDay(), false));
+    }
+
+    private void record(Change change) {
+        swapLock.readLock().lock();
+        try {
+            apply(intervalsByListing, change);
+            Queue<Change> pending = changesDuringReload;
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private static void apply(ConcurrentHashMap<Long, Intervals> index, Change change) {
+        if (change.added()) {
+            index.compute(change.listingId(), (id, current) -> current == null
+                    ? Intervals.of(List.<int[]>of(new int[]{change.start(), change.end()}), currentWindowStart())
+                    : current.with(change.start(), change.end()));
+        } else {
+            index.computeIfPresent(change.listingId(), (id, current) -> current.without(change.start(), change.end()));
+        }
+    }
+
+    private record Change(Long listingId, int start, int end, boolean added) {
+    }
+
+    /**
+     * Booked nights over a run of days: bit i of booked is set when night start + i is taken
+     */
+    public record AvailabilityCalendar(LocalDate start, int days, long[] booked) {
+
+        public boolean isBooked(int day) {
+            return (booked[day >>> 6] & (1L << day)) != 0;
+        }
+
+        /**
+         * Booked nights as half-open [start, end) date ranges
+         */
+        public List<LocalDate[]> bookedRanges() {
+            List<LocalDate[]> ranges = new ArrayList<>();
+            int day = nextBit(booked, 0, days, true);
+            while (day < days) {
+                int free = nextBit(booked, day, days, false);
+                ranges.add(new LocalDate[]{start.plusDays(day), start.plusDays(free)});
+                day = nextBit(booked, free, days, true);
+            }
+            return ranges;
+        }
+    }
+
+    /**
+     * Immutable start-sorted intervals of one listing. nights is the booked-night bitmap of
+     * the calendar window starting at windowStart, rebuilt from the intervals on every change.
+     */
+    private record Intervals(int[] starts, int[] ends, int windowStart, long[] nights) {
+
+        static Intervals of(List<int[]> rows, int windowStart) {
+            List<int[]> sorted = new ArrayList<>(rows);
+            sorted.sort(Comparator.comparingInt(row -> row[0]));
+
+            int size = sorted.size();
+            int[] starts = new int[size];
+            int[] ends = new int[size];
+            for (int i = 0; i < size; i++) {
+                starts[i] = sorted.get(i)[0];
+                ends[i] = sorted.get(i)[1];
+            }
+            return create(starts, ends, windowStart);
+        }
+
+        Intervals with(int start, int end) {
+            if (indexOf(start, end) >= 0) {
+                return this;
+            }
+            int insertAt = lastStartBefore(start + 1) + 1;
+            int size = starts.length;
+
+            int[] newStarts = new int[size + 1];
+            int[] newEnds = new int[size + 1];
+            System.arraycopy(starts, 0, newStarts, 0, insertAt);
+            System.arraycopy(ends, 0, newEnds, 0, insertAt);
+            newStarts[insertAt] = start;
+            newEnds[insertAt] = end;
+            System.arraycopy(starts, insertAt, newStarts, insertAt + 1, size - insertAt);
+            System.arraycopy(ends, insertAt, newEnds, insertAt + 1, size - insertAt);
+
+            return create(newStarts, newEnds, windowStart);
+        }
+
+        Intervals without(int start, int end) {
+            int i = indexOf(start, end);
+            if (i < 0) {
+                return this;
+            }
+            if (starts.length == 1) {
+                return null;
+            }
+            int[] newStarts = new int[starts.length - 1];
+            int[] newEnds = new int[ends.length - 1];
+            System.arraycopy(starts, 0, newStarts, 0, i);
+            System.arraycopy(ends, 0, newEnds, 0, i);
+            System.arraycopy(starts, i + 1, newStarts, i, starts.length - i - 1);
+            System.arraycopy(ends, i + 1, newEnds, i, ends.length - i - 1);
+            return create(newStarts, newEnds, windowStart);
+        }
+
+        private int indexOf(int start, int end) {
+            for (int i = 0; i < starts.length; i++) {
+                if (starts[i] == start && ends[i] == end) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static Intervals create(int[] starts, int[] ends, int windowStart) {
+            long[] nights = new long[WINDOW_WORDS];
+            for (int i = 0; i < starts.length; i++) {
+                int from = Math.max(starts[i], windowStart) - windowStart;
+                int to = Math.min(ends[i], windowStart + WINDOW_DAYS) - windowStart;
+                setBits(nights, from, to);
+            }
+            return new Intervals(starts, ends, windowStart, nights);
+        }
+
+        private int lastStartBefore(int day) {
+            int low = 0;
+            int high = starts.length - 1;
+            int result = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] < day) {
+                    result = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return result;
+        }
+    }
+
+    private static int currentWindowStart() {
+        return (int) LocalDate.now().withDayOfMonth(1).toEpochDay();
+    }
+
+    /**
+     * Set bits [from, to) a word at a time
+     */
+    static void setBits(long[] words, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            words[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        words[firstWord] |= firstMask;
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            words[i] = -1L;
+        }
+        words[lastWord] |= lastMask;
+    }
+
+    /**
+     * Copy bits [offset, offset + length) into a new array starting at bit 0
+     */
+    static long[] extractBits(long[] words, int offset, int length) {
+        long[] result = new long[(length + 63) >>> 6];
+        int shift = offset & 63;
+        int base = offset >>> 6;
+        for (int i = 0; i < result.length; i++) {
+            long low = base + i < words.length ? words[base + i] >>> shift : 0L;
+            long high = shift != 0 && base + i + 1 < words.length ? words[base + i + 1] << (64 - shift) : 0L;
+            result[i] = low | high;
+        }
+        int tail = length & 63;
+        if (tail != 0) {
+            result[result.length - 1] &= (1L << tail) - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Bit i of the result is set when nights i .. i + length - 1 are all free within the first
+     * days bits of booked. Runs are doubled with shift-and steps, so a stay of n nights costs
+     * O(log n) passes over the words instead of n.
+     */
+    static long[] freeRunStarts(long[] booked, int days, int length) {
+        long[] runs = new long[booked.length];
+        for (int i = 0; i < runs.length; i++) {
+            runs[i] = ~booked[i];
+        }
+        int tail = days & 63;
+        if (tail != 0) {
+            runs[runs.length - 1] &= (1L << tail) - 1;
+        }
+
+        int covered = 1;
+        while (covered < length) {
+            int step = Math.min(covered, length - covered);
+            andShiftedRight(runs, step);
+            covered += step;
+        }
+        return runs;
+    }
+
+    /**
+     * words &= words >>> shift across word boundaries, in place. Word i only reads words at
+     * index i and above, so walking upwards never sees an already updated word.
+     */
+    static void andShiftedRight(long[] words, int shift) {
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+        for (int i = 0; i < words.length; i++) {
+            int low = i + wordShift;
+            long shifted = low < words.length ? words[low] >>> bitShift : 0L;
+            if (bitShift != 0 && low + 1 < words.length) {
+                shifted |= words[low + 1] << (64 - bitShift);
+            }
+            words[i] &= shifted;
+        }
+    }
+
+    /**
+     * Index of the next set (or clear) bit at or after from, or limit when there is none
+     */
+    static int nextBit(long[] words, int from, int limit, boolean set) {
+        int index = from;
+        while (index < limit) {
+            int wordIndex = index >>> 6;
+            long word = set ? words[wordIndex] : ~words[wordIndex];
+            word &= -1L << index;
+            if (word != 0) {
+                return Math.min(limit, (wordIndex << 6) + Long.numberOfTrailingZeros(word));
+            }
+            index = (wordIndex + 1) << 6;
+        }
+        return limit;
+    }
+}
@@ -0,0 +1,166 @@
+package com.stayease.domain.listing.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for listing view and favorite counters.
+ *
+ * Increments land in per-listing counters and are flushed periodically as batched relative
+ * UPDATEs, so no row is read or locked per page view. Writers and the flush both go through
+ * per-key map operations, so an idle listing is never evicted between a writer finding its
+ * counters and incrementing them. Pending deltas are flushed on shutdown; a failed flush puts
+ * its deltas back.
+ *
+ * At most max-pending-listings listings are buffered. Beyond that, views of listings not
+ * yet buffered are dropped (view counts are approximate) and one early flush is requested;
+ * favorite deltas are always kept.
+ */
+@Component
+@Slf4j
+public class ListingCounterBuffer {
+
+    private static final String FLUSH_SQL =
+            "UPDATE listing SET view_count = COALESCE(view_count, 0) + ?, " +
+            "favorite_count = GREATEST(COALESCE(favorite_count, 0) + ?, 0) " +
+            "WHERE public_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final int maxPendingListings;
+
+    private final ConcurrentHashMap<UUID, Counters> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    public ListingCounterBuffer(JdbcTemplate jdbcTemplate,
+                                @Value("${app.listing.counters.batch-size:500}") int batchSize,
+                                @Value("${app.listing.counters.max-pending-listings:100000}") int maxPendingListings) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.maxPendingListings = maxPendingListings;
+    }
+
+    public void recordView(UUID listingPublicId) {
+        if (!pending.containsKey(listingPublicId) && pending.size() >= maxPendingListings) {
+            requestFlush();
+            return;
+        }
+        add(listingPublicId, 1, 0);
+    }
+
+    public void recordFavorite(UUID listingPublicId, int delta) {
+        add(listingPublicId, 0, delta);
+    }
+
+    /**
+     * Write all pending deltas to the listing table
+     */
+    @Scheduled(fixedDelayString = "${app.listing.counters.flush-interval-ms:5000}")
+    public void flush() {
+        // Skip if a flush is already running; it picks up everything recorded so far
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            writePending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushLock.lock();
+        try {
+            writePending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writePending() {
+        List<Object[]> rows = drain();
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        // Stable row order keeps concurrent flushes from several nodes from deadlocking
+        rows.sort(Comparator.comparing(row -> (UUID) row[2]));
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            write(rows.subList(from, Math.min(from + batchSize, rows.size())));
+        }
+        log.debug("Flushed counters for {} listings", rows.size());
+    }
+
+    private void add(UUID listingPublicId, long views, long favorites) {
+        pending.compute(listingPublicId, (id, counters) -> {
+            Counters target = counters != null ? counters : new Counters();
+            target.views.add(views);
+            target.favorites.add(favorites);
+            return target;
+        });
+    }
+
+    /**
+     * Start one early flush in the background, unless one is already requested
+     */
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    flush();
+                } finally {
+                    flushRequested.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Take the current deltas. Listings idle since the last flush are evicted, atomically
+     * with respect to writers, so no increment is lost.
+     */
+    private List<Object[]> drain() {
+        List<Object[]> rows = new ArrayList<>();
+        for (UUID listingPublicId : pending.keySet()) {
+            pending.computeIfPresent(listingPublicId, (id, counters) -> {
+                long views = counters.views.sumThenReset();
+                long favorites = counters.favorites.sumThenReset();
+                if (views == 0 && favorites == 0) {
+                    return null;
+                }
+                rows.add(new Object[]{views, favorites, id});
+                return counters;
+            });
+        }
+        return rows;
+    }
+
+    private void write(List<Object[]> batch) {
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+        } catch (RuntimeException e) {
+            log.error("Failed to flush counters for {} listings, retrying on next flush", batch.size(), e);
+            for (Object[] row : batch) {
+                add((UUID) row[2], (Long) row[0], (Long) row[1]);
+            }
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder views = new LongAdder();
+        private final LongAdder favorites = new LongAdder();
+    }
+}
@@ -0,0 +1,57 @@
+package com.stayease.domain.listing.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stayease.domain.listing.dto.ListingDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Bounded, per-node cache of mapped listing details keyed by listing publicId.
+ *
+ * Entries expire after a fixed TTL, which bounds staleness for changes made by other
+ * nodes; changes made on this node evict the entry through {@link #evict}. Misses load
+ * through the cache itself, so concurrent misses share one load and an eviction waits
+ * for an in-flight load of the same listing instead of being overwritten by it.
+ */
+@Component
+public class ListingDetailCache {
+
+    private final Cache<UUID, ListingDetail> cache;
+
+    public ListingDetailCache(@Value("${app.listing.detail-cache.max-size:10000}") long maxSize,
+                              @Value("${app.listing.detail-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public ListingDetail get(UUID publicId, Function<UUID, ListingDetail> loader) {
+        return cache.get(publicId, loader);
+    }
+
+    public void evict(UUID publicId) {
+        cache.invalidate(publicId);
+    }
+
+    /**
+     * A mapped listing with its validators for conditional GETs. listingId is the internal id,
+     * kept for in-memory lookups such as the availability calendar.
+     */
+    public record ListingDetail(Long listingId, ListingDTO listing, String etag, ZonedDateTime lastModified) {
+
+        public static ListingDetail of(Long listingId, ListingDTO listing) {
+            ZonedDateTime lastModified = listing.getUpdatedAt() != null ? listing.getUpdatedAt() : listing.getCreatedAt();
+            long version = lastModified != null ? lastModified.toInstant().toEpochMilli() : 0L;
+            // Weak: the response envelope (timestamp) differs between otherwise equal responses
+            return new ListingDetail(listingId, listing, "W/\"" + listing.getId() + "-" + version + "\"", lastModified);
+        }
+    }
+}
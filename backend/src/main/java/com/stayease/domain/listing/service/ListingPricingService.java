@@ -0,0 +1,308 @@
+package com.stayease.domain.listing.service;
+
+import com.stayease.domain.listing.dto.ListingPriceRuleDTO;
+import com.stayease.domain.listing.dto.PriceQuoteDTO;
+import com.stayease.domain.listing.dto.PriceQuoteRequestDTO;
+import com.stayease.domain.listing.entity.Listing;
+import com.stayease.domain.listing.entity.ListingPriceRule;
+import com.stayease.domain.listing.repository.ListingPriceRuleRepository;
+import com.stayease.domain.listing.repository.ListingPricingRow;
+import com.stayease.domain.listing.repository.ListingRepository;
+import com.stayease.exception.BadRequestException;
+import com.stayease.exception.ForbiddenException;
+import com.stayease.exception.NotFoundException;
+import com.stayease.security.SecurityUtils;
+import com.stayease.shared.constant.PriceRuleType;
+import com.stayease.shared.util.PriceUtil;
+import com.stayease.shared.util.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Listing pricing rules and stay quotes. Quotes are computed by PriceUtil in minor units;
+ * bookings are priced with {@link #quoteStay} so they always match what was quoted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class ListingPricingService {
+
+    private final ListingRepository listingRepository;
+    private final ListingPriceRuleRepository priceRuleRepository;
+    private final ListingQuoteCache quoteCache;
+    private final SecurityUtils securityUtils;
+
+    /**
+     * Quote one stay
+     */
+    @Transactional(readOnly = true)
+    public PriceQuoteDTO getQuote(UUID publicId, LocalDate checkIn, LocalDate checkOut, Integer guests) {
+        PriceQuoteRequestDTO request = PriceQuoteRequestDTO.builder()
+                .listingIds(List.of(publicId))
+                .checkIn(checkIn)
+                .checkOut(checkOut)
+                .guests(guests)
+                .build();
+
+        List<PriceQuoteDTO> quotes = getQuotes(request);
+        if (quotes.isEmpty()) {
+            // Tell apart a missing listing from a stay the listing does not accept
+            ListingPricingRow row = listingRepository.findPricingByPublicIds(List.of(publicId)).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new NotFoundException("Listing not found"));
+            String reason = describeRejection(row, checkIn, checkOut, guestsOrDefault(guests));
+            throw new BadRequestException(reason != null ? reason : "Listing cannot be quoted for this stay");
+        }
+        return quotes.get(0);
+    }
+
+    /**
+     * Quote the same stay for a batch of listings, e.g. a search result page. Cache misses are
+     * priced from two queries (listing columns, rules) regardless of the batch size. Listings
+     * that do not exist or do not accept the stay are left out; order follows the request.
+     */
+    @Transactional(readOnly = true)
+    public List<PriceQuoteDTO> getQuotes(PriceQuoteRequestDTO request) {
+        LocalDate checkIn = request.getCheckIn();
+        LocalDate checkOut = request.getCheckOut();
+        validateDates(checkIn, checkOut);
+        int guests = guestsOrDefault(request.getGuests());
+
+        Map<UUID, PriceQuoteDTO> quotes = new HashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        for (UUID publicId : new LinkedHashSet<>(request.getListingIds())) {
+            PriceQuoteDTO cached = quoteCache.get(new ListingQuoteCache.Key(publicId, checkIn, checkOut, guests));
+            if (cached != null) {
+                quotes.put(publicId, cached);
+            } else {
+                misses.add(publicId);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            // Read before the prices, so quotes from rows older than a concurrent eviction are not cached
+            long generation = quoteCache.generation();
+            List<ListingPricingRow> rows = listingRepository.findPricingByPublicIds(misses);
+            Map<Long, List<ListingPriceRule>> rulesByListing = rows.isEmpty()
+                    ? Collections.emptyMap()
+                    : priceRuleRepository.findByListingIdIn(rows.stream().map(ListingPricingRow::id).toList()).stream()
+                            .collect(Collectors.groupingBy(ListingPriceRule::getListingId));
+
+            for (ListingPricingRow row : rows) {
+                if (describeRejection(row, checkIn, checkOut, guests) != null) {
+                    continue;
+                }
+                PriceUtil.PricingPlan plan = buildPlan(row.price(), row.cleaningFee(), row.serviceFeePercentage(),
+                        row.currency(), rulesByListing.getOrDefault(row.id(), Collections.emptyList()));
+                PriceQuoteDTO quote = toDTO(row.publicId(), checkIn, checkOut, guests, plan,
+                        PriceUtil.quote(plan, checkIn, checkOut));
+                quoteCache.put(new ListingQuoteCache.Key(row.publicId(), checkIn, checkOut, guests), quote, generation);
+                quotes.put(row.publicId(), quote);
+            }
+        }
+
+        return request.getListingIds().stream()
+                .distinct()
+                .map(quotes::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Price a stay of an already loaded listing, bypassing the cache (used for bookings)
+     */
+    @Transactional(readOnly = true)
+    public PriceUtil.Quote quoteStay(Listing listing, LocalDate checkIn, LocalDate checkOut) {
+        PriceUtil.PricingPlan plan = buildPlan(listing.getPrice(), listing.getCleaningFee(),
+                listing.getServiceFeePercentage(), listing.getCurrency(),
+                priceRuleRepository.findByListingIdOrderByIdAsc(listing.getId()));
+        return PriceUtil.quote(plan, checkIn, checkOut);
+    }
+
+    /**
+     * Get pricing rules of a listing
+     */
+    @Transactional(readOnly = true)
+    public List<ListingPriceRuleDTO> getPriceRules(UUID publicId) {
+        Listing listing = listingRepository.findByPublicId(publicId)
+                .orElseThrow(() -> new NotFoundException("Listing not found"));
+
+        return priceRuleRepository.findByListingIdOrderByIdAsc(listing.getId()).stream()
+                .map(this::toRuleDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Replace all pricing rules of a listing
+     */
+    public List<ListingPriceRuleDTO> replacePriceRules(UUID publicId, List<ListingPriceRuleDTO> ruleDTOs) {
+        log.info("Replacing pricing rules of listing: {}", publicId);
+
+        Listing listing = listingRepository.findByPublicId(publicId)
+                .orElseThrow(() -> new NotFoundException("Listing not found"));
+
+        UUID currentUserPublicId = securityUtils.getCurrentUserPublicId();
+        if (!listing.getLandlordPublicId().equals(currentUserPublicId)) {
+            throw new ForbiddenException("You don't have permission to update this listing");
+        }
+
+        List<ListingPriceRule> rules = ruleDTOs.stream()
+                .map(dto -> toRuleEntity(listing.getId(), dto))
+                .collect(Collectors.toList());
+        if (rules.stream().filter(rule -> rule.getRuleType() == PriceRuleType.WEEKEND).count() > 1) {
+            throw new BadRequestException("A listing can have only one weekend price");
+        }
+
+        priceRuleRepository.deleteByListingId(listing.getId());
+        List<ListingPriceRule> saved = priceRuleRepository.saveAll(rules);
+        evictQuotes(publicId);
+
+        return saved.stream()
+                .map(this::toRuleDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Drop cached quotes of a listing once the current transaction commits. Quotes priced
+     * before that from the old rows are rejected by the cache's generation check.
+     */
+    public void evictQuotes(UUID publicId) {
+        TransactionUtil.afterCommit(() -> quoteCache.evictListing(publicId));
+    }
+
+    // Helper methods
+
+    private PriceUtil.PricingPlan buildPlan(BigDecimal price, BigDecimal cleaningFee, BigDecimal serviceFeePercentage,
+                                            String currency, List<ListingPriceRule> rules) {
+        int digits = PriceUtil.fractionDigits(currency);
+        Long weekendRate = null;
+        List<PriceUtil.Season> seasons = new ArrayList<>();
+        List<PriceUtil.StayDiscount> discounts = new ArrayList<>();
+
+        for (ListingPriceRule rule : rules) {
+            switch (rule.getRuleType()) {
+                case WEEKEND -> weekendRate = PriceUtil.toMinor(rule.getNightlyPrice(), digits);
+                case SEASON -> seasons.add(new PriceUtil.Season(
+                        (int) rule.getStartDate().toEpochDay(),
+                        (int) rule.getEndDate().toEpochDay(),
+                        PriceUtil.toMinor(rule.getNightlyPrice(), digits)));
+                case LENGTH_OF_STAY -> discounts.add(new PriceUtil.StayDiscount(
+                        rule.getMinNights(), PriceUtil.toBasisPoints(rule.getDiscountPercentage())));
+            }
+        }
+        seasons.sort(Comparator.comparingInt(PriceUtil.Season::startDay));
+
+        return new PriceUtil.PricingPlan(currency, digits, PriceUtil.toMinor(price, digits), weekendRate,
+                seasons, discounts, PriceUtil.toMinor(cleaningFee, digits), PriceUtil.toBasisPoints(serviceFeePercentage));
+    }
+
+    private PriceQuoteDTO toDTO(UUID publicId, LocalDate checkIn, LocalDate checkOut, int guests,
+                                PriceUtil.PricingPlan plan, PriceUtil.Quote quote) {
+        int digits = plan.fractionDigits();
+        return PriceQuoteDTO.builder()
+                .listingId(publicId)
+                .checkIn(checkIn)
+                .checkOut(checkOut)
+                .guests(guests)
+                .nights(quote.nights())
+                .currency(plan.currency())
+                .nightlyTotal(PriceUtil.toMajor(quote.accommodation(), digits))
+                .lengthOfStayDiscount(PriceUtil.toMajor(quote.discount(), digits))
+                .cleaningFee(PriceUtil.toMajor(quote.cleaningFee(), digits))
+                .serviceFee(PriceUtil.toMajor(quote.serviceFee(), digits))
+                .total(PriceUtil.toMajor(quote.total(), digits))
+                .build();
+    }
+
+    private ListingPriceRule toRuleEntity(Long listingId, ListingPriceRuleDTO dto) {
+        PriceRuleType type;
+        try {
+            type = PriceRuleType.valueOf(dto.getRuleType().trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown pricing rule type: " + dto.getRuleType());
+        }
+
+        switch (type) {
+            case WEEKEND -> {
+                if (dto.getNightlyPrice() == null) {
+                    throw new BadRequestException("Weekend price needs a nightly price");
+                }
+            }
+            case SEASON -> {
+                if (dto.getStartDate() == null || dto.getEndDate() == null || dto.getNightlyPrice() == null) {
+                    throw new BadRequestException("Seasonal price needs start date, end date and nightly price");
+                }
+                if (!dto.getEndDate().isAfter(dto.getStartDate())) {
+                    throw new BadRequestException("Season end date must be after its start date");
+                }
+            }
+            case LENGTH_OF_STAY -> {
+                if (dto.getMinNights() == null || dto.getDiscountPercentage() == null) {
+                    throw new BadRequestException("Length-of-stay discount needs minimum nights and a percentage");
+                }
+            }
+        }
+
+        return ListingPriceRule.builder()
+                .listingId(listingId)
+                .ruleType(type)
+                .startDate(type == PriceRuleType.SEASON ? dto.getStartDate() : null)
+                .endDate(type == PriceRuleType.SEASON ? dto.getEndDate() : null)
+                .nightlyPrice(type != PriceRuleType.LENGTH_OF_STAY ? dto.getNightlyPrice() : null)
+                .minNights(type == PriceRuleType.LENGTH_OF_STAY ? dto.getMinNights() : null)
+                .discountPercentage(type == PriceRuleType.LENGTH_OF_STAY ? dto.getDiscountPercentage() : null)
+                .build();
+    }
+
+    private ListingPriceRuleDTO toRuleDTO(ListingPriceRule rule) {
+        return ListingPriceRuleDTO.builder()
+                .ruleType(rule.getRuleType().name())
+                .startDate(rule.getStartDate())
+                .endDate(rule.getEndDate())
+                .nightlyPrice(rule.getNightlyPrice())
+                .minNights(rule.getMinNights())
+                .discountPercentage(rule.getDiscountPercentage())
+                .build();
+    }
+
+    private void validateDates(LocalDate checkIn, LocalDate checkOut) {
+        if (checkIn == null || checkOut == null) {
+            throw new BadRequestException("Both check-in and check-out dates are required");
+        }
+        if (!checkOut.isAfter(checkIn)) {
+            throw new BadRequestException("Check-out date must be after check-in date");
+        }
+        if (checkIn.isBefore(LocalDate.now())) {
+            throw new BadRequestException("Check-in date cannot be in the past");
+        }
+    }
+
+    /**
+     * Why a listing does not accept the stay, or null when it does
+     */
+    private static String describeRejection(ListingPricingRow row, LocalDate checkIn, LocalDate checkOut, int guests) {
+        long nights = checkOut.toEpochDay() - checkIn.toEpochDay();
+        if (row.guests() != null && guests > row.guests()) {
+            return "Listing accommodates at most " + row.guests() + " guests";
+        }
+        if (row.minNights() != null && nights < row.minNights()) {
+            return "Minimum stay is " + row.minNights() + " nights";
+        }
+        if (row.maxNights() != null && nights > row.maxNights()) {
+            return "Maximum stay is " + row.maxNights() + " nights";
+        }
+        return null;
+    }
+
+    private static int guestsOrDefault(Integer guests) {
+        return guests != null && guests > 0 ? guests : 1;
+    }
+}
@@ -0,0 +1,81 @@
+package com.stayease.domain.listing.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stayease.domain.listing.dto.PriceQuoteDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bounded, per-node cache of price quotes keyed by (listing publicId, dates, guests).
+ *
+ * Pricing changes made on this node drop every quote of the listing through
+ * {@link #evictListing}; the TTL bounds staleness for changes made by other nodes.
+ * Eviction scans the keys, which is fine for a cache of this size and a rare operation.
+ *
+ * Every eviction bumps a generation. Quotes are put only if no eviction happened since
+ * the caller read {@link #generation} before loading prices, so a quote priced from rows
+ * read before a pricing change committed is dropped instead of outliving the eviction.
+ */
+@Component
+public class ListingQuoteCache {
+
+    private final Cache<Key, PriceQuoteDTO> cache;
+    private final ReadWriteLock generationLock = new ReentrantReadWriteLock();
+    private long generation;
+
+    public ListingQuoteCache(@Value("${app.listing.quote-cache.max-size:50000}") long maxSize,
+                             @Value("${app.listing.quote-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public PriceQuoteDTO get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    public long generation() {
+        generationLock.readLock().lock();
+        try {
+            return generation;
+        } finally {
+            generationLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cache a quote unless a listing was evicted after {@code loadedAt} was read
+     */
+    public void put(Key key, PriceQuoteDTO quote, long loadedAt) {
+        generationLock.readLock().lock();
+        try {
+            if (generation == loadedAt) {
+                cache.put(key, quote);
+            }
+        } finally {
+            generationLock.readLock().unlock();
+        }
+    }
+
+    public void evictListing(UUID publicId) {
+        generationLock.writeLock().lock();
+        try {
+            generation++;
+            cache.asMap().keySet().removeIf(key -> key.listingId().equals(publicId));
+        } finally {
+            generationLock.writeLock().unlock();
+        }
+    }
+
+    public record Key(UUID listingId, LocalDate checkIn, LocalDate checkOut, int guests) {
+    }
+}
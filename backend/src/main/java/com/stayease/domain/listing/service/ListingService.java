@@ -6,21 +6,44 @@ import com.stayease.domain.listing.entity.Listing;
 import com.stayease.domain.listing.entity.ListingImage;
 import com.stayease.domain.listing.repository.FavoriteListingRepository;
 import com.stayease.domain.listing.repository.ListingImageRepository;
+import com.stayease.domain.listing.repository.ListingKeysetFilter;
+import com.stayease.domain.listing.repository.ListingKeysetRow;
+import com.stayease.domain.listing.repository.ListingRef;
 import com.stayease.domain.listing.repository.ListingRepository;
+import com.stayease.domain.listing.repository.ListingSort;
+import com.stayease.exception.BadRequestException;
 import com.stayease.exception.ConflictException;
 import com.stayease.exception.ForbiddenException;
 import com.stayease.exception.NotFoundException;
 import com.stayease.security.SecurityUtils;
 import com.stayease.shared.constant.ListingStatus;
+import com.stayease.shared.dto.CursorPageDTO;
 import com.stayease.shared.mapper.ListingMapper;
+import com.stayease.shared.util.CursorUtil;
+import com.stayease.shared.util.GeoUtil;
+import com.stayease.shared.util.TransactionUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,11 +52,26 @@ import java.util.stream.Collectors;
 @Transactional
 public class ListingService {
 
+    // Sentinel for "no amenity filter"; amenity ids are always positive
+    private static final List<Integer> NO_AMENITY_IDS = List.of(-1);
+    private static final double MAX_RADIUS_KM = 200;
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_FAVORITE_CHECK_IDS = 100;
+    private static final int DEFAULT_CALENDAR_MONTHS = 3;
+    private static final int MAX_FLEXIBLE_NIGHTS = 365;
+    private static final int MAX_FLEXIBLE_WINDOWS = 3;
+
     private final ListingRepository listingRepository;
     private final ListingImageRepository listingImageRepository;
     private final FavoriteListingRepository favoriteListingRepository;
     private final ListingMapper listingMapper;
     private final SecurityUtils securityUtils;
+    private final ListingAvailabilityIndex availabilityIndex;
+    private final ListingCounterBuffer counterBuffer;
+    private final AmenityDictionary amenityDictionary;
+    private final ListingDetailCache detailCache;
+    private final ListingPricingService pricingService;
+    private final PlatformTransactionManager transactionManager;
 
     /**
      * Create a new listing
@@ -46,6 +84,7 @@ public class ListingService {
 
         // Convert DTO to Entity
         Listing listing = listingMapper.toEntity(createDTO);
+        listing.setAmenityIds(amenityDictionary.register(createDTO.getAmenities()));
         listing.setLandlordPublicId(currentUserPublicId);
         listing.setStatus(ListingStatus.DRAFT);
 
@@ -68,20 +107,61 @@ public class ListingService {
         }
 
         log.info("Listing created successfully with publicId: {}", savedListing.getPublicId());
-        return listingMapper.toDTO(savedListing);
+        return toDTO(savedListing);
     }
 
     /**
      * Get listing by publicId
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ListingDTO getListing(UUID publicId) {
-        log.info("Fetching listing with publicId: {}", publicId);
+        return getListingDetail(publicId).listing();
+    }
+
+    /**
+     * Get listing by publicId with its ETag and last modification time. Served from
+     * ListingDetailCache when possible; a hit takes no transaction or connection.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ListingDetailCache.ListingDetail getListingDetail(UUID publicId) {
+        // Concurrent misses for the same listing share a single load
+        return detailCache.get(publicId, id -> {
+            log.info("Fetching listing with publicId: {}", id);
+            TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+            readOnlyTransaction.setReadOnly(true);
+            return readOnlyTransaction.execute(status -> listingRepository.findByPublicIdWithImages(id)
+                    .map(listing -> ListingDetailCache.ListingDetail.of(listing.getId(), toDTO(listing)))
+                    .orElseThrow(() -> new NotFoundException("Listing not found with ID: " + id)));
+        });
+    }
+
+    /**
+     * Availability calendar of a listing between from (inclusive) and to (exclusive).
+     * Answered from the detail cache and the in-memory availability bitmap.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ListingCalendarDTO getCalendar(UUID publicId, LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now().withDayOfMonth(1);
+        LocalDate end = to != null ? to : start.plusMonths(DEFAULT_CALENDAR_MONTHS);
+        if (!end.isAfter(start)) {
+            throw new BadRequestException("Calendar end date must be after its start date");
+        }
+
+        ListingDetailCache.ListingDetail detail = getListingDetail(publicId);
+        ListingAvailabilityIndex.AvailabilityCalendar calendar = availabilityIndex.getCalendar(detail.listingId(), start, end);
 
-        Listing listing = listingRepository.findByPublicIdWithImages(publicId)
-                .orElseThrow(() -> new NotFoundException("Listing not found with ID: " + publicId));
+        List<ListingCalendarDTO.DateRange> unavailable = calendar.bookedRanges().stream()
+                .map(range -> new ListingCalendarDTO.DateRange(range[0], range[1]))
+                .collect(Collectors.toList());
 
-        return listingMapper.toDTO(listing);
+        return ListingCalendarDTO.builder()
+                .listingId(publicId)
+                .startDate(calendar.start())
+                .endDate(calendar.start().plusDays(calendar.days()))
+                .minNights(detail.listing().getMinNights())
+                .maxNights(detail.listing().getMaxNights())
+                .unavailable(unavailable)
+                .build();
     }
 
     /**
@@ -101,6 +181,10 @@ public class ListingService {
 
         // Update listing fields
         listingMapper.updateEntityFromDTO(updateDTO, listing);
+        if (updateDTO.getAmenities() != null) {
+            listing.getAmenityIds().clear();
+            listing.getAmenityIds().addAll(amenityDictionary.register(updateDTO.getAmenities()));
+        }
 
         // Update images if provided
         if (updateDTO.getImages() != null) {
@@ -119,10 +203,12 @@ public class ListingService {
             }
         }
 
+        evictDetail(publicId);
+        pricingService.evictQuotes(publicId);
         Listing updatedListing = listingRepository.save(listing);
         log.info("Listing updated successfully: {}", publicId);
 
-        return listingMapper.toDTO(updatedListing);
+        return toDTO(updatedListing);
     }
 
     /**
@@ -140,6 +226,8 @@ public class ListingService {
             throw new ForbiddenException("You don't have permission to delete this listing");
         }
 
+        evictDetail(publicId);
+        pricingService.evictQuotes(publicId);
         listingRepository.delete(listing);
         log.info("Listing deleted successfully: {}", publicId);
     }
@@ -148,62 +236,273 @@ public class ListingService {
      * Search listings with filters
      */
     @Transactional(readOnly = true)
-    public Page<ListingDTO> searchListings(SearchListingDTO searchDTO) {
+    public Page<ListingCardDTO> searchListings(SearchListingDTO searchDTO) {
         log.info("Searching listings with filters: {}", searchDTO);
 
+        if (hasRadius(searchDTO)) {
+            if (searchDTO.getLocation() != null && !searchDTO.getLocation().isBlank()) {
+                throw new BadRequestException("Text search cannot be combined with a radius search");
+            }
+            return searchNearby(searchDTO);
+        }
+
         Pageable pageable = createPageable(searchDTO);
-        Page<Listing> listingsPage;
+        boolean hasDates = hasDates(searchDTO);
+        Optional<Set<Integer>> requestedAmenityIds = resolveAmenityIds(searchDTO);
+        if (requestedAmenityIds.isEmpty()) {
+            // An amenity no listing has
+            return Page.empty(pageable);
+        }
+        Set<Integer> amenityIds = requestedAmenityIds.get();
+        Collection<Integer> amenityIdsParam = amenityIds.isEmpty() ? NO_AMENITY_IDS : amenityIds;
 
-        // If location is provided
+        // Text search over title and location, ranked by relevance
         if (searchDTO.getLocation() != null && !searchDTO.getLocation().isBlank()) {
-            listingsPage = listingRepository.searchByLocation(
-                    searchDTO.getLocation().trim(),
-                    pageable
+            Page<UUID> idsPage = listingRepository.searchPublicIdsByText(
+                    searchDTO.getLocation().trim().toLowerCase(Locale.ROOT),
+                    searchDTO.getMinPrice(),
+                    searchDTO.getMaxPrice(),
+                    searchDTO.getGuests(),
+                    searchDTO.getCategory(),
+                    amenityIdsParam,
+                    amenityIds.size(),
+                    searchDTO.getCheckIn(),
+                    searchDTO.getCheckOut(),
+                    // Results are ordered by relevance, so sortBy does not apply here
+                    PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
             );
+            return new PageImpl<>(findCardsInOrder(idsPage.getContent()), idsPage.getPageable(), idsPage.getTotalElements());
         }
         // Advanced filter search
-        else if (hasAdvancedFilters(searchDTO)) {
-            listingsPage = listingRepository.searchWithFilters(
-                    searchDTO.getLocation(),
+        if (hasAdvancedFilters(searchDTO)) {
+            return listingRepository.searchWithFilters(
                     searchDTO.getMinPrice(),
                     searchDTO.getMaxPrice(),
                     searchDTO.getGuests(),
                     searchDTO.getCategory(),
+                    amenityIdsParam,
+                    amenityIds.size(),
+                    searchDTO.getCheckIn(),
+                    searchDTO.getCheckOut(),
                     pageable
             );
         }
+        // Date-only search: all active listings that are free for the stay
+        if (hasDates) {
+            return listingRepository.findActiveListingsAvailable(searchDTO.getCheckIn(), searchDTO.getCheckOut(), pageable);
+        }
         // Default: get all active listings
-        else {
-            listingsPage = listingRepository.findAllActiveListings(pageable);
+        return listingRepository.findAllActiveListings(pageable);
+    }
+
+    /**
+     * Flexible-date search: listings with at least one free stay of the requested number of
+     * nights between flexibleFrom and flexibleTo, each with its first free windows. Listings
+     * whose minNights/maxNights do not allow the stay length are left out.
+     */
+    @Transactional(readOnly = true)
+    public Page<FlexibleListingDTO> searchFlexibleDates(SearchListingDTO searchDTO) {
+        log.info("Flexible-date search: {} nights between {} and {}",
+                searchDTO.getNights(), searchDTO.getFlexibleFrom(), searchDTO.getFlexibleTo());
+
+        if (searchDTO.getFlexibleFrom() == null || searchDTO.getFlexibleTo() == null || searchDTO.getNights() == null) {
+            throw new BadRequestException("Flexible search needs a date range and a number of nights");
+        }
+        int nights = searchDTO.getNights();
+        if (nights < 1 || nights > MAX_FLEXIBLE_NIGHTS) {
+            throw new BadRequestException("Nights must be between 1 and " + MAX_FLEXIBLE_NIGHTS);
+        }
+        // Nights in the past cannot be booked
+        LocalDate from = searchDTO.getFlexibleFrom().isBefore(LocalDate.now()) ? LocalDate.now() : searchDTO.getFlexibleFrom();
+        LocalDate to = searchDTO.getFlexibleTo();
+        if (from.plusDays(nights).isAfter(to)) {
+            throw new BadRequestException("Date range is shorter than the requested stay");
+        }
+        // Availability bitmaps only cover the calendar window
+        if (to.isAfter(LocalDate.now().withDayOfMonth(1).plusMonths(ListingAvailabilityIndex.CALENDAR_MONTHS))) {
+            throw new BadRequestException("Flexible search covers at most "
+                    + ListingAvailabilityIndex.CALENDAR_MONTHS + " months ahead");
+        }
+
+        Pageable pageable = createPageable(searchDTO);
+        Optional<Set<Integer>> requestedAmenityIds = resolveAmenityIds(searchDTO);
+        if (requestedAmenityIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        Set<Integer> amenityIds = requestedAmenityIds.get();
+
+        Page<UUID> idsPage = listingRepository.searchPublicIdsForFlexibleStay(
+                from,
+                to.minusDays(nights),
+                nights,
+                searchDTO.getMinPrice(),
+                searchDTO.getMaxPrice(),
+                searchDTO.getGuests(),
+                searchDTO.getCategory(),
+                amenityIds.isEmpty() ? NO_AMENITY_IDS : amenityIds,
+                amenityIds.size(),
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                        ListingSort.fromCode(searchDTO.getSortBy()).toNativeSort())
+        );
+
+        List<ListingCardDTO> cards = findCardsInOrder(idsPage.getContent());
+        Map<UUID, Long> idsByPublicId = idsPage.isEmpty()
+                ? Collections.emptyMap()
+                : listingRepository.findRefsByPublicIds(idsPage.getContent()).stream()
+                        .collect(Collectors.toMap(ListingRef::publicId, ListingRef::id));
+
+        List<FlexibleListingDTO> results = cards.stream()
+                .map(card -> FlexibleListingDTO.builder()
+                        .listing(card)
+                        .availableWindows(availabilityIndex
+                                .findFreeWindows(idsByPublicId.get(card.getId()), from, to, nights, MAX_FLEXIBLE_WINDOWS)
+                                .stream()
+                                .map(start -> new ListingCalendarDTO.DateRange(start, start.plusDays(nights)))
+                                .collect(Collectors.toList()))
+                        .build())
+                .collect(Collectors.toList());
+        return new PageImpl<>(results, idsPage.getPageable(), idsPage.getTotalElements());
+    }
+
+    /**
+     * Search active listings within radiusKm of latitude/longitude, with the same filters
+     * and stay dates as {@link #searchListings}
+     */
+    @Transactional(readOnly = true)
+    public Page<ListingCardDTO> searchNearby(SearchListingDTO searchDTO) {
+        log.info("Searching listings near ({}, {}) within {} km",
+                searchDTO.getLatitude(), searchDTO.getLongitude(), searchDTO.getRadiusKm());
+
+        double lat = searchDTO.getLatitude();
+        double lng = searchDTO.getLongitude();
+        double radiusKm = searchDTO.getRadiusKm();
+        validateCoordinates(lat, lng);
+        if (radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+            throw new BadRequestException("Radius must be greater than 0 and at most " + MAX_RADIUS_KM + " km");
+        }
+        hasDates(searchDTO);
+
+        double latDelta = radiusKm / GeoUtil.KM_PER_DEGREE_LATITUDE;
+        double lngDelta = radiusKm * GeoUtil.longitudeDegreesPerKm(lat);
+        double minLat = GeoUtil.clampLatitude(lat - latDelta);
+        double maxLat = GeoUtil.clampLatitude(lat + latDelta);
+        // A circle reaching over the antimeridian gives a box with west > east
+        double west = lngDelta >= 180 ? -180.0 : GeoUtil.wrapLongitude(lng - lngDelta);
+        double east = lngDelta >= 180 ? 180.0 : GeoUtil.wrapLongitude(lng + lngDelta);
+        double[][] lngRanges = GeoUtil.longitudeRanges(west, east);
+        double wrappedLng = lng < 0 ? lng + 360 : lng - 360;
+
+        double cos = Math.cos(Math.toRadians(lat));
+        BigDecimal lngScale = BigDecimal.valueOf(cos * cos);
+        BigDecimal radiusDegSq = BigDecimal.valueOf(latDelta * latDelta);
+        Pageable pageable = createPageable(searchDTO);
+
+        Optional<Set<Integer>> requestedAmenityIds = resolveAmenityIds(searchDTO);
+        if (requestedAmenityIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        Set<Integer> amenityIds = requestedAmenityIds.get();
+        Collection<Integer> amenityIdsParam = amenityIds.isEmpty() ? NO_AMENITY_IDS : amenityIds;
+
+        return GeoUtil.cellsCovering(minLat, maxLat, west, east)
+                .map(cells -> listingRepository.searchNearbyInGeoCells(
+                        cells,
+                        BigDecimal.valueOf(minLat), BigDecimal.valueOf(maxLat),
+                        BigDecimal.valueOf(lngRanges[0][0]), BigDecimal.valueOf(lngRanges[0][1]),
+                        BigDecimal.valueOf(lngRanges[1][0]), BigDecimal.valueOf(lngRanges[1][1]),
+                        BigDecimal.valueOf(lat), BigDecimal.valueOf(lng), BigDecimal.valueOf(wrappedLng),
+                        lngScale, radiusDegSq,
+                        searchDTO.getMinPrice(), searchDTO.getMaxPrice(), searchDTO.getGuests(), searchDTO.getCategory(),
+                        amenityIdsParam, amenityIds.size(),
+                        searchDTO.getCheckIn(), searchDTO.getCheckOut(),
+                        pageable))
+                .orElseGet(() -> listingRepository.searchNearbyInBoundingBox(
+                        BigDecimal.valueOf(minLat), BigDecimal.valueOf(maxLat),
+                        BigDecimal.valueOf(lngRanges[0][0]), BigDecimal.valueOf(lngRanges[0][1]),
+                        BigDecimal.valueOf(lngRanges[1][0]), BigDecimal.valueOf(lngRanges[1][1]),
+                        BigDecimal.valueOf(lat), BigDecimal.valueOf(lng), BigDecimal.valueOf(wrappedLng),
+                        lngScale, radiusDegSq,
+                        searchDTO.getMinPrice(), searchDTO.getMaxPrice(), searchDTO.getGuests(), searchDTO.getCategory(),
+                        amenityIdsParam, amenityIds.size(),
+                        searchDTO.getCheckIn(), searchDTO.getCheckOut(),
+                        pageable));
+    }
+
+    /**
+     * Search active listings inside a map viewport, with the same filters and stay dates as
+     * {@link #searchListings}. A viewport with minLongitude > maxLongitude crosses the antimeridian.
+     */
+    @Transactional(readOnly = true)
+    public Page<ListingCardDTO> searchInViewport(SearchListingDTO searchDTO) {
+        log.info("Searching listings in viewport [{}, {}] x [{}, {}]",
+                searchDTO.getMinLatitude(), searchDTO.getMaxLatitude(),
+                searchDTO.getMinLongitude(), searchDTO.getMaxLongitude());
+
+        if (searchDTO.getMinLatitude() == null || searchDTO.getMaxLatitude() == null ||
+                searchDTO.getMinLongitude() == null || searchDTO.getMaxLongitude() == null) {
+            throw new BadRequestException("Viewport bounds are required");
+        }
+
+        double minLat = searchDTO.getMinLatitude();
+        double maxLat = searchDTO.getMaxLatitude();
+        double west = searchDTO.getMinLongitude();
+        double east = searchDTO.getMaxLongitude();
+        validateCoordinates(minLat, west);
+        validateCoordinates(maxLat, east);
+        if (minLat > maxLat) {
+            throw new BadRequestException("Viewport minimum latitude must not exceed maximum latitude");
         }
+        hasDates(searchDTO);
+        double[][] lngRanges = GeoUtil.longitudeRanges(west, east);
 
-        return listingsPage.map(listingMapper::toDTO);
+        Pageable pageable = createPageable(searchDTO);
+        Optional<Set<Integer>> requestedAmenityIds = resolveAmenityIds(searchDTO);
+        if (requestedAmenityIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        Set<Integer> amenityIds = requestedAmenityIds.get();
+        Collection<Integer> amenityIdsParam = amenityIds.isEmpty() ? NO_AMENITY_IDS : amenityIds;
+
+        return GeoUtil.cellsCovering(minLat, maxLat, west, east)
+                .map(cells -> listingRepository.searchInGeoCells(
+                        cells,
+                        BigDecimal.valueOf(minLat), BigDecimal.valueOf(maxLat),
+                        BigDecimal.valueOf(lngRanges[0][0]), BigDecimal.valueOf(lngRanges[0][1]),
+                        BigDecimal.valueOf(lngRanges[1][0]), BigDecimal.valueOf(lngRanges[1][1]),
+                        searchDTO.getMinPrice(), searchDTO.getMaxPrice(), searchDTO.getGuests(), searchDTO.getCategory(),
+                        amenityIdsParam, amenityIds.size(),
+                        searchDTO.getCheckIn(), searchDTO.getCheckOut(),
+                        pageable))
+                .orElseGet(() -> listingRepository.searchInBoundingBox(
+                        BigDecimal.valueOf(minLat), BigDecimal.valueOf(maxLat),
+                        BigDecimal.valueOf(lngRanges[0][0]), BigDecimal.valueOf(lngRanges[0][1]),
+                        BigDecimal.valueOf(lngRanges[1][0]), BigDecimal.valueOf(lngRanges[1][1]),
+                        searchDTO.getMinPrice(), searchDTO.getMaxPrice(), searchDTO.getGuests(), searchDTO.getCategory(),
+                        amenityIdsParam, amenityIds.size(),
+                        searchDTO.getCheckIn(), searchDTO.getCheckOut(),
+                        pageable));
     }
 
     /**
      * Get all listings
      */
     @Transactional(readOnly = true)
-    public Page<ListingDTO> getAllListings(int page, int size) {
+    public Page<ListingCardDTO> getAllListings(int page, int size) {
         log.info("Fetching all listings");
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Listing> listingsPage = listingRepository.findAllActiveListings(pageable);
-
-        return listingsPage.map(listingMapper::toDTO);
+        return listingRepository.findAllActiveListings(pageable);
     }
 
     /**
      * Get listings by category
      */
     @Transactional(readOnly = true)
-    public Page<ListingDTO> getListingsByCategory(String category, int page, int size) {
+    public Page<ListingCardDTO> getListingsByCategory(String category, int page, int size) {
         log.info("Fetching listings by category: {}", category);
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<Listing> listingsPage = listingRepository.findByCategory(category, pageable);
-
-        return listingsPage.map(listingMapper::toDTO);
+        return listingRepository.findCardsByCategory(category, pageable);
     }
 
     /**
@@ -218,20 +517,94 @@ public class ListingService {
 
         Page<Listing> listingsPage = listingRepository.findByLandlordPublicId(currentUserPublicId, pageable);
 
-        return listingsPage.map(listingMapper::toDTO);
+        return listingsPage.map(this::toDTO);
     }
 
     /**
      * Get listings by landlord publicId
      */
     @Transactional(readOnly = true)
-    public Page<ListingDTO> getListingsByLandlord(UUID landlordPublicId, int page, int size) {
+    public Page<ListingCardDTO> getListingsByLandlord(UUID landlordPublicId, int page, int size) {
         log.info("Fetching listings for landlord: {}", landlordPublicId);
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<Listing> listingsPage = listingRepository.findByLandlordPublicId(landlordPublicId, pageable);
+        return listingRepository.findCardsByLandlordPublicId(landlordPublicId, pageable);
+    }
+
+    /**
+     * Search listings with cursor pagination (no total count)
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ListingCardDTO> searchListingsByCursor(SearchListingDTO searchDTO, String cursor) {
+        log.info("Searching listings by cursor with filters: {}", searchDTO);
+
+        if (searchDTO.getLocation() != null && !searchDTO.getLocation().isBlank()) {
+            throw new BadRequestException("Text search is ranked by relevance and only supports page-based pagination");
+        }
+        if (hasRadius(searchDTO)) {
+            throw new BadRequestException("Radius search only supports page-based pagination");
+        }
+
+        Optional<Set<Integer>> amenityIds = resolveAmenityIds(searchDTO);
+        if (amenityIds.isEmpty()) {
+            // An amenity no listing has
+            return CursorPageDTO.of(Collections.emptyList(), null);
+        }
+
+        ListingKeysetFilter filter = ListingKeysetFilter.builder()
+                .activeOnly(true)
+                .minPrice(searchDTO.getMinPrice())
+                .maxPrice(searchDTO.getMaxPrice())
+                .guests(searchDTO.getGuests())
+                .category(searchDTO.getCategory())
+                .amenityIds(amenityIds.get())
+                .checkIn(hasDates(searchDTO) ? searchDTO.getCheckIn() : null)
+                .checkOut(hasDates(searchDTO) ? searchDTO.getCheckOut() : null)
+                .build();
+
+        return scroll(filter, searchDTO.getSortBy(), cursor, searchDTO.getSize());
+    }
+
+    /**
+     * Get all listings with cursor pagination
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ListingCardDTO> getAllListingsByCursor(String sortBy, String cursor, int size) {
+        log.info("Fetching all listings by cursor");
+
+        ListingKeysetFilter filter = ListingKeysetFilter.builder()
+                .activeOnly(true)
+                .build();
 
-        return listingsPage.map(listingMapper::toDTO);
+        return scroll(filter, sortBy, cursor, size);
+    }
+
+    /**
+     * Get listings by category with cursor pagination
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ListingCardDTO> getListingsByCategoryByCursor(String category, String sortBy, String cursor, int size) {
+        log.info("Fetching listings by category by cursor: {}", category);
+
+        ListingKeysetFilter filter = ListingKeysetFilter.builder()
+                .category(category)
+                .build();
+
+        return scroll(filter, sortBy, cursor, size);
+    }
+
+    /**
+     * Get listings by landlord publicId with cursor pagination
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ListingCardDTO> getListingsByLandlordByCursor(UUID landlordPublicId, String sortBy, String cursor, int size) {
+        log.info("Fetching listings for landlord by cursor: {}", landlordPublicId);
+
+        ListingKeysetFilter filter = ListingKeysetFilter.builder()
+                .landlordPublicId(landlordPublicId)
+                .build();
+
+        return scroll(filter, sortBy, cursor, size);
     }
 
     /**
@@ -243,14 +616,15 @@ public class ListingService {
         UUID currentUserPublicId = securityUtils.getCurrentUserPublicId();
         
         // Check if listing exists
-        Listing listing = listingRepository.findByPublicId(publicId)
-                .orElseThrow(() -> new NotFoundException("Listing not found"));
+        if (!listingRepository.existsByPublicId(publicId)) {
+            throw new NotFoundException("Listing not found");
+        }
 
         // Check if already favorited
         if (favoriteListingRepository.existsByUserPublicIdAndListingPublicId(currentUserPublicId, publicId)) {
             // Remove favorite
             favoriteListingRepository.deleteByUserPublicIdAndListingPublicId(currentUserPublicId, publicId);
-            listing.decrementFavoriteCount();
+            TransactionUtil.afterCommit(() -> counterBuffer.recordFavorite(publicId, -1));
             log.info("Removed favorite for listing: {}", publicId);
         } else {
             // Add favorite
@@ -259,11 +633,9 @@ public class ListingService {
                     .listingPublicId(publicId)
                     .build();
             favoriteListingRepository.save(favorite);
-            listing.incrementFavoriteCount();
+            TransactionUtil.afterCommit(() -> counterBuffer.recordFavorite(publicId, 1));
             log.info("Added favorite for listing: {}", publicId);
         }
-        
-        listingRepository.save(listing);
     }
 
     /**
@@ -274,28 +646,17 @@ public class ListingService {
         log.info("Fetching favorite listings for current user");
 
         UUID currentUserPublicId = securityUtils.getCurrentUserPublicId();
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-
-        Page<FavoriteListing> favoritesPage = favoriteListingRepository.findByUserPublicId(currentUserPublicId, pageable);
-        
-        List<UUID> listingIds = favoritesPage.getContent().stream()
-                .map(FavoriteListing::getListingPublicId)
-                .collect(Collectors.toList());
-
-        List<Listing> listings = listingRepository.findAllById(
-                listingIds.stream()
-                        .map(id -> listingRepository.findByPublicId(id)
-                                .map(Listing::getId)
-                                .orElse(null))
-                        .filter(id -> id != null)
-                        .collect(Collectors.toList())
-        );
+        Pageable pageable = PageRequest.of(page, size);
 
-        List<ListingDTO> listingDTOs = listings.stream()
-                .map(listingMapper::toDTO)
-                .collect(Collectors.toList());
+        // Listings and landlords in one query, then all their images in a second one
+        Page<Listing> favorites = favoriteListingRepository.findFavoriteListingsWithLandlord(currentUserPublicId, pageable);
+        if (favorites.hasContent()) {
+            listingRepository.fetchImagesForListings(favorites.getContent().stream()
+                    .map(Listing::getId)
+                    .collect(Collectors.toList()));
+        }
 
-        return new PageImpl<>(listingDTOs, pageable, favoritesPage.getTotalElements());
+        return favorites.map(this::toDTO);
     }
 
     /**
@@ -313,11 +674,13 @@ public class ListingService {
             throw new ForbiddenException("You don't have permission to publish this listing");
         }
 
+        evictDetail(publicId);
+        pricingService.evictQuotes(publicId);
         listing.publish();
         Listing published = listingRepository.save(listing);
 
         log.info("Listing published successfully: {}", publicId);
-        return listingMapper.toDTO(published);
+        return toDTO(published);
     }
 
     /**
@@ -335,24 +698,25 @@ public class ListingService {
             throw new ForbiddenException("You don't have permission to unpublish this listing");
         }
 
+        evictDetail(publicId);
+        pricingService.evictQuotes(publicId);
         listing.unpublish();
         Listing unpublished = listingRepository.save(listing);
 
         log.info("Listing unpublished successfully: {}", publicId);
-        return listingMapper.toDTO(unpublished);
+        return toDTO(unpublished);
     }
 
     /**
-     * Increment view count
+     * Increment view count. The listing is checked against the detail cache, then the view is
+     * buffered in memory and flushed in batches by ListingCounterBuffer, so no transaction or
+     * row lock is taken per view of a cached listing.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void incrementViewCount(UUID publicId) {
         log.debug("Incrementing view count for listing: {}", publicId);
-
-        Listing listing = listingRepository.findByPublicId(publicId)
-                .orElseThrow(() -> new NotFoundException("Listing not found"));
-
-        listing.incrementViewCount();
-        listingRepository.save(listing);
+        getListingDetail(publicId);
+        counterBuffer.recordView(publicId);
     }
 
     /**
@@ -368,42 +732,141 @@ public class ListingService {
         }
     }
 
+    /**
+     * Get which of the given listings the current user has favorited
+     */
+    @Transactional(readOnly = true)
+    public Set<UUID> getFavoritedListingIds(List<UUID> listingPublicIds) {
+        if (listingPublicIds == null || listingPublicIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        if (listingPublicIds.size() > MAX_FAVORITE_CHECK_IDS) {
+            throw new BadRequestException("At most " + MAX_FAVORITE_CHECK_IDS + " listing ids can be checked at once");
+        }
+
+        UUID currentUserPublicId = securityUtils.getCurrentUserPublicId();
+        return new HashSet<>(favoriteListingRepository.findFavoritedListingPublicIds(
+                currentUserPublicId, new HashSet<>(listingPublicIds)));
+    }
+
     // Helper methods
 
+    /**
+     * Drop the cached detail once this transaction commits. A load that read the old row
+     * finishes before the eviction runs, so the old version does not stay cached.
+     */
+    private void evictDetail(UUID publicId) {
+        TransactionUtil.afterCommit(() -> detailCache.evict(publicId));
+    }
+
     private Pageable createPageable(SearchListingDTO searchDTO) {
         int page = searchDTO.getPage() != null ? searchDTO.getPage() : 0;
         int size = searchDTO.getSize() != null ? searchDTO.getSize() : 20;
 
-        Sort sort = Sort.by("createdAt").descending();
-
-        if (searchDTO.getSortBy() != null) {
-            switch (searchDTO.getSortBy().toLowerCase()) {
-                case "price_asc":
-                    sort = Sort.by("price").ascending();
-                    break;
-                case "price_desc":
-                    sort = Sort.by("price").descending();
-                    break;
-                case "newest":
-                    sort = Sort.by("createdAt").descending();
-                    break;
-                case "rating":
-                    sort = Sort.by("averageRating").descending();
-                    break;
-                case "popular":
-                    sort = Sort.by("viewCount").descending();
-                    break;
-            }
+        return PageRequest.of(page, size, ListingSort.fromCode(searchDTO.getSortBy()).toSort());
+    }
+
+    /**
+     * Fetch one keyset slice. Reads one extra row to know whether another slice exists;
+     * the cursor encodes the sort option, the last sort key and the last id.
+     */
+    private CursorPageDTO<ListingCardDTO> scroll(ListingKeysetFilter filter, String sortBy, String cursor, Integer size) {
+        ListingSort sort = ListingSort.fromCode(sortBy);
+        int limit = Math.min(size != null && size > 0 ? size : 20, MAX_CURSOR_PAGE_SIZE);
+        ListingSort.Position after = decodeCursor(cursor, sort);
+
+        List<ListingKeysetRow> rows = listingRepository.findKeysetPage(filter, sort, after, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<ListingKeysetRow> slice = hasNext ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            ListingSort.Position last = slice.get(slice.size() - 1).position();
+            nextCursor = CursorUtil.encode(sort.getCode(), String.valueOf(last.key()), String.valueOf(last.id()));
+        }
+
+        List<ListingCardDTO> content = findCardsInOrder(slice.stream()
+                .map(ListingKeysetRow::publicId)
+                .collect(Collectors.toList()));
+        return CursorPageDTO.of(content, nextCursor);
+    }
+
+    /**
+     * Load listing cards for the given public ids, keeping the order of the ids
+     */
+    private List<ListingCardDTO> findCardsInOrder(List<UUID> publicIds) {
+        if (publicIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<UUID, ListingCardDTO> cardsById = listingRepository.findCardsByPublicIds(publicIds).stream()
+                .collect(Collectors.toMap(ListingCardDTO::getId, Function.identity()));
+        return publicIds.stream()
+                .map(cardsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private ListingSort.Position decodeCursor(String cursor, ListingSort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
         }
 
-        return PageRequest.of(page, size, sort);
+        String[] parts = CursorUtil.decode(cursor, 3);
+        if (!sort.getCode().equals(parts[0])) {
+            throw new BadRequestException("Cursor does not match sort option: " + sort.getCode());
+        }
+        try {
+            return new ListingSort.Position(sort.parseKey(parts[1]), Long.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private ListingDTO toDTO(Listing listing) {
+        return listingMapper.toDTO(listing, amenityDictionary.codesOf(listing.getAmenityIds()));
+    }
+
+    /**
+     * Ids of the requested amenities, or empty when one of them is not a known amenity
+     */
+    private Optional<Set<Integer>> resolveAmenityIds(SearchListingDTO searchDTO) {
+        if (searchDTO.getAmenities() == null || searchDTO.getAmenities().isEmpty()) {
+            return Optional.of(Collections.emptySet());
+        }
+        return amenityDictionary.resolve(searchDTO.getAmenities());
+    }
+
+    private boolean hasDates(SearchListingDTO searchDTO) {
+        if (searchDTO.getCheckIn() == null && searchDTO.getCheckOut() == null) {
+            return false;
+        }
+        if (searchDTO.getCheckIn() == null || searchDTO.getCheckOut() == null) {
+            throw new BadRequestException("Both check-in and check-out dates are required");
+        }
+        if (!searchDTO.getCheckOut().isAfter(searchDTO.getCheckIn())) {
+            throw new BadRequestException("Check-out date must be after check-in date");
+        }
+        return true;
+    }
+
+    private boolean hasRadius(SearchListingDTO searchDTO) {
+        return searchDTO.getLatitude() != null &&
+               searchDTO.getLongitude() != null &&
+               searchDTO.getRadiusKm() != null;
+    }
+
+    private void validateCoordinates(double latitude, double longitude) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new BadRequestException("Coordinates out of range");
+        }
     }
 
     private boolean hasAdvancedFilters(SearchListingDTO searchDTO) {
-        return searchDTO.getLocation() != null ||
-               searchDTO.getMinPrice() != null ||
+        return searchDTO.getMinPrice() != null ||
                searchDTO.getMaxPrice() != null ||
                searchDTO.getGuests() != null ||
-               searchDTO.getCategory() != null;
+               searchDTO.getCategory() != null ||
+               (searchDTO.getAmenities() != null && !searchDTO.getAmenities().isEmpty());
     }
 }
\ No newline at end of file
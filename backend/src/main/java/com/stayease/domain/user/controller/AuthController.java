@@ -2,6 +2,7 @@ package com.stayease.domain.user.controller;
 
 import com.stayease.domain.user.dto.AuthResponseDTO;
 import com.stayease.domain.user.dto.CreateUserDTO;
+import com.stayease.domain.user.dto.LoginRequestDTO;
 import com.stayease.domain.user.dto.UserDTO;
 import com.stayease.domain.user.service.AuthService;
 import com.stayease.shared.dto.ApiResponse;
@@ -27,6 +28,12 @@ public class AuthController {
                 .body(ApiResponse.success(user, "User registered successfully"));
     }
 
+    @PostMapping("/login")
+    public ResponseEntity<ApiResponse<AuthResponseDTO>> login(@Valid @RequestBody LoginRequestDTO loginRequest) {
+        AuthResponseDTO response = authService.login(loginRequest);
+        return ResponseEntity.ok(ApiResponse.success(response, "Login successful"));
+    }
+
     @PostMapping("/callback")
     public ResponseEntity<ApiResponse<AuthResponseDTO>> handleOAuthCallback(@AuthenticationPrincipal Jwt jwt) {
         AuthResponseDTO response = authService.handleOAuthCallback(jwt);
@@ -2,15 +2,20 @@ package com.stayease.domain.user.controller;
 
 import com.stayease.domain.user.dto.UpdateUserDTO;
 import com.stayease.domain.user.dto.UserDTO;
+import com.stayease.domain.user.repository.UserFilter;
 import com.stayease.domain.user.service.UserService;
 import com.stayease.shared.dto.ApiResponse;
+import com.stayease.shared.dto.CursorPageDTO;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.Instant;
 import java.util.UUID;
 
 @RestController
@@ -18,6 +23,8 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class UserController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final UserService userService;
 
     @GetMapping("/{publicId}")
@@ -27,15 +34,45 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(user, "User retrieved successfully"));
     }
 
+    /**
+     * Browse users newest first with cursor pagination
+     * GET /api/users?role=ADMIN&verified=true&createdFrom=...&createdTo=...&cursor=...
+     */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<List<UserDTO>>> getAllUsers() {
-        List<UserDTO> users = userService.getAllUsers();
+    public ResponseEntity<ApiResponse<CursorPageDTO<UserDTO>>> getUsers(
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) Boolean verified,
+            @RequestParam(required = false) Instant createdFrom,
+            @RequestParam(required = false) Instant createdTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        UserFilter filter = new UserFilter(role, verified, createdFrom, createdTo);
+        CursorPageDTO<UserDTO> users = userService.getUsersByCursor(filter, cursor, size);
         return ResponseEntity.ok(ApiResponse.success(users, "Users retrieved successfully"));
     }
 
+    /**
+     * Export matching users as newline-delimited JSON
+     * GET /api/users/export
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) Boolean verified,
+            @RequestParam(required = false) Instant createdFrom,
+            @RequestParam(required = false) Instant createdTo) {
+        UserFilter filter = new UserFilter(role, verified, createdFrom, createdTo);
+        StreamingResponseBody body = outputStream -> userService.exportUsers(filter, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"")
+                .body(body);
+    }
+
     @PutMapping("/{publicId}")
-    @PreAuthorize("isAuthenticated() and (#publicId.toString() == authentication.principal.publicId.toString() or hasRole('ADMIN'))")
+    @PreAuthorize("isAuthenticated() and (#publicId.toString() == authentication.name or hasRole('ADMIN'))")
     public ResponseEntity<ApiResponse<UserDTO>> updateUser(
             @PathVariable UUID publicId,
             @Valid @RequestBody UpdateUserDTO updateUserDTO) {
@@ -0,0 +1,26 @@
+package com.stayease.domain.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * One line of the NDJSON user export; createdAt is ISO-8601
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserExportDTO {
+    private UUID publicId;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private Boolean verified;
+    private Set<String> authorities;
+    private String createdAt;
+}
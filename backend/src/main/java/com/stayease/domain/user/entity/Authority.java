@@ -2,12 +2,20 @@ package com.stayease.domain.user.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
 
+/**
+ * Fixed set of roles (see AuthorityConstant), so rows are cached read-only in the
+ * second-level cache.
+ */
 @Entity
 @Table(name = "authority")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = Authority.CACHE_REGION)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -15,6 +23,8 @@ import java.util.Set;
 @Builder
 public class Authority {
 
+    public static final String CACHE_REGION = "authority";
+
     @Id
     @Column(name = "name", length = 50)
     private String name;
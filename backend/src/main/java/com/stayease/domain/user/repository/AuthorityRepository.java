@@ -1,7 +1,10 @@
 package com.stayease.domain.user.repository;
 
 import com.stayease.domain.user.entity.Authority;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,5 +12,14 @@ import java.util.Optional;
 @Repository
 public interface AuthorityRepository extends JpaRepository<Authority, String> {
 
+    String REFERENCE_QUERY_REGION = "reference-queries";
+
+    /**
+     * Served from the query cache and the authority region after the first call
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = REFERENCE_QUERY_REGION)
+    })
     Optional<Authority> findByName(String name);
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.stayease.domain.user.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC reads of the user table for admin browsing and export.
+ *
+ * Rows are ordered by (created_at DESC, id DESC), served by idx_user_created_id, and
+ * authorities are loaded in one query per page or chunk rather than per user.
+ */
+@Repository
+public class UserBrowseRepository {
+
+    private static final String SELECT_USERS =
+            "SELECT u.id, u.public_id, u.email, u.first_name, u.last_name, u.image_url, u.verified, u.created_at " +
+            "FROM \"user\" u WHERE 1 = 1";
+
+    private static final String ORDER_BY_NEWEST = " ORDER BY u.created_at DESC, u.id DESC";
+
+    private static final String SELECT_AUTHORITIES =
+            "SELECT user_id, authority_name FROM user_authority WHERE user_id IN (:userIds)";
+
+    private static final RowMapper<UserRow> USER_ROW_MAPPER = (rs, rowNum) -> new UserRow(
+            rs.getLong("id"),
+            rs.getObject("public_id", UUID.class),
+            rs.getString("email"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getString("image_url"),
+            rs.getBoolean("verified"),
+            rs.getTimestamp("created_at"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+
+    public UserBrowseRepository(DataSource dataSource,
+                                NamedParameterJdbcTemplate jdbcTemplate,
+                                @Value("${app.user.export.fetch-size:500}") int exportFetchSize) {
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(exportFetchSize);
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    /**
+     * Next keyset page after the given position, or the first page when it is null
+     */
+    public List<UserRow> findPage(UserFilter filter, Position after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder sql = new StringBuilder(SELECT_USERS);
+        appendFilter(sql, params, filter);
+        if (after != null) {
+            sql.append(" AND (u.created_at, u.id) < (:afterCreatedAt, :afterId)");
+            params.addValue("afterCreatedAt", after.createdAt());
+            params.addValue("afterId", after.id());
+        }
+        sql.append(ORDER_BY_NEWEST).append(" LIMIT :limit");
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.query(sql.toString(), params, USER_ROW_MAPPER);
+    }
+
+    /**
+     * Stream every matching user through a server-side cursor, handing rows over in chunks.
+     * Must run inside a transaction, otherwise the driver reads the whole result at once.
+     */
+    public void forEachChunk(UserFilter filter, int chunkSize, Consumer<List<UserRow>> consumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder sql = new StringBuilder(SELECT_USERS);
+        appendFilter(sql, params, filter);
+        sql.append(ORDER_BY_NEWEST);
+
+        List<UserRow> chunk = new ArrayList<>(chunkSize);
+        streamingJdbcTemplate.query(sql.toString(), params, rs -> {
+            chunk.add(USER_ROW_MAPPER.mapRow(rs, chunk.size()));
+            if (chunk.size() >= chunkSize) {
+                consumer.accept(List.copyOf(chunk));
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty()) {
+            consumer.accept(List.copyOf(chunk));
+        }
+    }
+
+    /**
+     * Authority names of the given users in one query; users without authorities are absent
+     */
+    public Map<Long, Set<String>> findAuthorityNames(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Long, Set<String>> authorities = new HashMap<>();
+        jdbcTemplate.query(SELECT_AUTHORITIES, new MapSqlParameterSource("userIds", userIds), rs -> {
+            authorities.computeIfAbsent(rs.getLong("user_id"), id -> new HashSet<>())
+                    .add(rs.getString("authority_name"));
+        });
+        return authorities;
+    }
+
+    private void appendFilter(StringBuilder sql, MapSqlParameterSource params, UserFilter filter) {
+        if (filter.verified() != null) {
+            sql.append(" AND u.verified = :verified");
+            params.addValue("verified", filter.verified());
+        }
+        if (filter.createdFrom() != null) {
+            sql.append(" AND u.created_at >= :createdFrom");
+            params.addValue("createdFrom", Timestamp.from(filter.createdFrom()));
+        }
+        if (filter.createdTo() != null) {
+            sql.append(" AND u.created_at < :createdTo");
+            params.addValue("createdTo", Timestamp.from(filter.createdTo()));
+        }
+        if (filter.authority() != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM user_authority ua WHERE ua.user_id = u.id AND ua.authority_name = :authority)");
+            params.addValue("authority", filter.authority());
+        }
+    }
+
+    public record UserRow(long id, UUID publicId, String email, String firstName, String lastName,
+                          String imageUrl, boolean verified, Timestamp createdAt) {
+
+        public Instant createdAtInstant() {
+            return createdAt != null ? createdAt.toInstant() : null;
+        }
+    }
+
+    /**
+     * Last (created_at, id) of a page
+     */
+    public record Position(Timestamp createdAt, long id) {
+    }
+}
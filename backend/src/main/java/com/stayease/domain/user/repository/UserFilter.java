@@ -0,0 +1,18 @@
+package com.stayease.domain.user.repository;
+
+import lombok.Builder;
+
+import java.time.Instant;
+
+/**
+ * Optional filters for admin user browsing and export; null fields are ignored.
+ * createdFrom is inclusive, createdTo exclusive.
+ */
+@Builder
+public record UserFilter(
+        String authority,
+        Boolean verified,
+        Instant createdFrom,
+        Instant createdTo
+) {
+}
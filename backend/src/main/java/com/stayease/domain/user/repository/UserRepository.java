@@ -2,6 +2,7 @@ package com.stayease.domain.user.repository;
 
 import com.stayease.domain.user.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,4 +24,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.authorities ua LEFT JOIN FETCH ua.authority WHERE u.publicId = :publicId")
     Optional<User> findByPublicIdWithAuthorities(@Param("publicId") UUID publicId);
+
+    /**
+     * Swap the password hash only if it still equals the one that was verified
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :upgradedHash WHERE u.publicId = :publicId AND u.passwordHash = :currentHash")
+    int updatePasswordHash(@Param("publicId") UUID publicId,
+                           @Param("currentHash") String currentHash,
+                           @Param("upgradedHash") String upgradedHash);
 }
\ No newline at end of file
@@ -2,16 +2,24 @@ package com.stayease.domain.user.service;
 
 import com.stayease.domain.user.dto.AuthResponseDTO;
 import com.stayease.domain.user.dto.CreateUserDTO;
+import com.stayease.domain.user.dto.LoginRequestDTO;
 import com.stayease.domain.user.dto.UserDTO;
-import com.stayease.domain.user.entity.User;
+import com.stayease.exception.TooManyRequestsException;
 import com.stayease.exception.UnauthorizedException;
-import com.stayease.shared.mapper.UserMapper;
+import com.stayease.security.JwtTokenProvider;
+import com.stayease.security.LoginAttemptTracker;
+import com.stayease.security.PasswordHashingService;
+import com.stayease.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -19,13 +27,62 @@ import org.springframework.transaction.annotation.Transactional;
 public class AuthService {
 
     private final UserService userService;
-    private final UserMapper userMapper;
+    private final PrincipalCache principalCache;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginAttemptTracker loginAttemptTracker;
+    private final JwtTokenProvider jwtTokenProvider;
 
+    // No transaction here: createUser hashes the password before opening its own
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserDTO register(CreateUserDTO createUserDTO) {
         log.info("Registering new user with email: {}", createUserDTO.getEmail());
         return userService.createUser(createUserDTO);
     }
 
+    /**
+     * Local email/password login. The account is resolved from the principal cache and
+     * the password checked on the hashing pool; repeated failures lock the account for
+     * a sliding window. Hashes with an outdated cost are upgraded in the background.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AuthResponseDTO login(LoginRequestDTO loginRequest) {
+        String email = loginRequest.getEmail().trim();
+
+        long lockedForMillis = loginAttemptTracker.lockedForMillis(email);
+        if (lockedForMillis > 0) {
+            throw new TooManyRequestsException("Too many failed login attempts, please try again later",
+                    TimeUnit.MILLISECONDS.toSeconds(lockedForMillis + 999));
+        }
+
+        Optional<PrincipalCache.CachedPrincipal> principal = principalCache.getByEmail(email);
+        String currentHash = principal.map(PrincipalCache.CachedPrincipal::passwordHash).orElse(null);
+
+        PasswordHashingService.PasswordCheck check = passwordHashingService.verify(loginRequest.getPassword(), currentHash);
+        if (!check.matches()) {
+            loginAttemptTracker.recordFailure(email);
+            log.info("Failed login attempt for user: {}", email);
+            throw new UnauthorizedException("Invalid email or password");
+        }
+        loginAttemptTracker.reset(email);
+
+        PrincipalCache.CachedPrincipal account = principal.get();
+        if (check.needsUpgrade()) {
+            passwordHashingService.upgradeAsync(loginRequest.getPassword(), upgradedHash ->
+                    userService.upgradePasswordHash(account.publicId(), email, currentHash, upgradedHash));
+        }
+
+        Jwt token = jwtTokenProvider.createToken(account.publicId(), email, account.authorities());
+        log.info("User logged in: {}", account.publicId());
+
+        return AuthResponseDTO.builder()
+                .token(token.getTokenValue())
+                .tokenType("Bearer")
+                .expiresIn(jwtTokenProvider.getExpiration().toSeconds())
+                .user(userService.getUserByPublicId(account.publicId()))
+                .build();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResponseDTO handleOAuthCallback(Jwt jwt) {
         if (jwt == null) {
             throw new UnauthorizedException("Invalid token");
@@ -36,11 +93,14 @@ public class AuthService {
         String lastName = jwt.getClaimAsString("family_name");
         String picture = jwt.getClaimAsString("picture");
 
+        if (email == null || email.isBlank()) {
+            throw new UnauthorizedException("Token has no email claim");
+        }
+
         log.info("Processing OAuth callback for user: {}", email);
 
         // Get or create user from OAuth data
-        User user = userService.getOrCreateUserFromOAuth(email, firstName, lastName, picture);
-        UserDTO userDTO = userMapper.toDTO(user);
+        UserDTO userDTO = userService.getOrCreateUserFromOAuth(email, firstName, lastName, picture);
 
         // Build response
         return AuthResponseDTO.builder()
@@ -1,23 +1,44 @@
 package com.stayease.domain.user.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stayease.domain.user.dto.CreateUserDTO;
 import com.stayease.domain.user.dto.UpdateUserDTO;
 import com.stayease.domain.user.dto.UserDTO;
+import com.stayease.domain.user.dto.UserExportDTO;
 import com.stayease.domain.user.entity.Authority;
 import com.stayease.domain.user.entity.User;
 import com.stayease.domain.user.repository.AuthorityRepository;
+import com.stayease.domain.user.repository.UserBrowseRepository;
+import com.stayease.domain.user.repository.UserFilter;
 import com.stayease.domain.user.repository.UserRepository;
+import com.stayease.exception.BadRequestException;
 import com.stayease.exception.ConflictException;
 import com.stayease.exception.NotFoundException;
+import com.stayease.security.PasswordHashingService;
+import com.stayease.security.PrincipalCache;
 import com.stayease.shared.constant.AuthorityConstant;
+import com.stayease.shared.dto.CursorPageDTO;
 import com.stayease.shared.mapper.UserMapper;
+import com.stayease.shared.util.CursorUtil;
+import com.stayease.shared.util.SingleFlight;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -27,51 +48,79 @@ import java.util.stream.Collectors;
 @Transactional
 public class UserService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    private static final String ROLE_PREFIX = "ROLE_";
+
     private final UserRepository userRepository;
     private final AuthorityRepository authorityRepository;
     private final UserMapper userMapper;
-    private final PasswordEncoder passwordEncoder;
-
+    private final PasswordHashingService passwordHashingService;
+    private final PlatformTransactionManager transactionManager;
+    private final SingleFlight<UUID, UserDTO> userSingleFlight;
+    private final SingleFlight<String, UserDTO> oauthProvisioningSingleFlight;
+    private final PrincipalCache principalCache;
+    private final UserBrowseRepository userBrowseRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Create a user. The password is hashed on the bounded hashing pool before a transaction
+     * is opened, so no pooled connection is held while BCrypt runs.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserDTO createUser(CreateUserDTO createUserDTO) {
         log.info("Creating new user with email: {}", createUserDTO.getEmail());
 
-        if (userRepository.existsByEmail(createUserDTO.getEmail())) {
-            throw new ConflictException("User with email " + createUserDTO.getEmail() + " already exists");
-        }
+        String passwordHash = createUserDTO.getPassword() != null && !createUserDTO.getPassword().isEmpty()
+                ? passwordHashingService.hash(createUserDTO.getPassword())
+                : null;
 
-        User user = userMapper.toEntity(createUserDTO);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return transaction.execute(status -> {
+            if (userRepository.existsByEmail(createUserDTO.getEmail())) {
+                throw new ConflictException("User with email " + createUserDTO.getEmail() + " already exists");
+            }
 
-        // Hash password if provided
-        if (createUserDTO.getPassword() != null && !createUserDTO.getPassword().isEmpty()) {
-            user.setPasswordHash(passwordEncoder.encode(createUserDTO.getPassword()));
-        }
+            User user = userMapper.toEntity(createUserDTO);
+            if (passwordHash != null) {
+                user.setPasswordHash(passwordHash);
+            }
 
-        // Assign default TENANT role if no authorities specified
-        if (createUserDTO.getAuthorities() == null || createUserDTO.getAuthorities().isEmpty()) {
-            Authority tenantAuthority = authorityRepository.findByName(AuthorityConstant.ROLE_TENANT)
-                    .orElseThrow(() -> new NotFoundException("Default authority not found"));
-            user.addAuthority(tenantAuthority);
-        } else {
-            // Assign specified authorities
-            for (String authorityName : createUserDTO.getAuthorities()) {
-                Authority authority = authorityRepository.findByName(authorityName)
-                        .orElseThrow(() -> new NotFoundException("Authority not found: " + authorityName));
-                user.addAuthority(authority);
+            // Assign default TENANT role if no authorities specified
+            if (createUserDTO.getAuthorities() == null || createUserDTO.getAuthorities().isEmpty()) {
+                Authority tenantAuthority = authorityRepository.findByName(AuthorityConstant.ROLE_TENANT)
+                        .orElseThrow(() -> new NotFoundException("Default authority not found"));
+                user.addAuthority(tenantAuthority);
+            } else {
+                // Assign specified authorities
+                for (String authorityName : createUserDTO.getAuthorities()) {
+                    Authority authority = authorityRepository.findByName(authorityName)
+                            .orElseThrow(() -> new NotFoundException("Authority not found: " + authorityName));
+                    user.addAuthority(authority);
+                }
             }
-        }
 
-        User savedUser = userRepository.save(user);
-        log.info("User created successfully with publicId: {}", savedUser.getPublicId());
+            User savedUser = userRepository.save(user);
+            log.info("User created successfully with publicId: {}", savedUser.getPublicId());
 
-        return userMapper.toDTO(savedUser);
+            return userMapper.toDTO(savedUser);
+        });
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Concurrent lookups of the same user share one load; the load runs in its own
+     * read-only transaction so waiting callers do not hold a connection.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserDTO getUserByPublicId(UUID publicId) {
-        log.info("Fetching user with publicId: {}", publicId);
-        User user = userRepository.findByPublicIdWithAuthorities(publicId)
-                .orElseThrow(() -> new NotFoundException("User not found with publicId: " + publicId));
-        return userMapper.toDTO(user);
+        return userSingleFlight.execute(publicId, () -> {
+            log.info("Fetching user with publicId: {}", publicId);
+            TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+            readOnlyTransaction.setReadOnly(true);
+            return readOnlyTransaction.execute(status -> userRepository.findByPublicIdWithAuthorities(publicId)
+                    .map(userMapper::toDTO)
+                    .orElseThrow(() -> new NotFoundException("User not found with publicId: " + publicId)));
+        });
     }
 
     @Transactional(readOnly = true)
@@ -82,12 +131,76 @@ public class UserService {
         return userMapper.toDTO(user);
     }
 
+    /**
+     * Browse users newest first with keyset pagination
+     */
     @Transactional(readOnly = true)
-    public List<UserDTO> getAllUsers() {
-        log.info("Fetching all users");
-        return userRepository.findAll().stream()
-                .map(userMapper::toDTO)
+    public CursorPageDTO<UserDTO> getUsersByCursor(UserFilter filter, String cursor, Integer size) {
+        log.info("Fetching users by cursor with filter: {}", filter);
+        int limit = Math.min(size != null && size > 0 ? size : 20, MAX_CURSOR_PAGE_SIZE);
+
+        List<UserBrowseRepository.UserRow> rows = userBrowseRepository.findPage(
+                normalize(filter), decodeCursor(cursor), limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<UserBrowseRepository.UserRow> slice = hasNext ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            UserBrowseRepository.UserRow last = slice.get(slice.size() - 1);
+            nextCursor = CursorUtil.encode(last.createdAt().toString(), String.valueOf(last.id()));
+        }
+
+        Map<Long, Set<String>> authorities = findAuthorityNames(slice);
+        List<UserDTO> content = slice.stream()
+                .map(row -> UserDTO.builder()
+                        .publicId(row.publicId())
+                        .email(row.email())
+                        .firstName(row.firstName())
+                        .lastName(row.lastName())
+                        .imageUrl(row.imageUrl())
+                        .verified(row.verified())
+                        .authorities(authorities.getOrDefault(row.id(), Collections.emptySet()))
+                        .createdAt(row.createdAtInstant())
+                        .build())
                 .collect(Collectors.toList());
+        return CursorPageDTO.of(content, nextCursor);
+    }
+
+    /**
+     * Write every matching user as one JSON object per line. Rows come from a JDBC cursor
+     * and are written chunk by chunk, so memory use does not grow with the user count.
+     */
+    @Transactional(readOnly = true)
+    public void exportUsers(UserFilter filter, OutputStream outputStream) throws IOException {
+        log.info("Exporting users with filter: {}", filter);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+        try {
+            userBrowseRepository.forEachChunk(normalize(filter), EXPORT_CHUNK_SIZE, chunk -> {
+                Map<Long, Set<String>> authorities = findAuthorityNames(chunk);
+                try {
+                    for (UserBrowseRepository.UserRow row : chunk) {
+                        UserExportDTO line = UserExportDTO.builder()
+                                .publicId(row.publicId())
+                                .email(row.email())
+                                .firstName(row.firstName())
+                                .lastName(row.lastName())
+                                .verified(row.verified())
+                                .authorities(authorities.getOrDefault(row.id(), Collections.emptySet()))
+                                .createdAt(row.createdAtInstant().toString())
+                                .build();
+                        writer.write(objectMapper.writeValueAsString(line));
+                        writer.write('\n');
+                    }
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
     }
 
     public UserDTO updateUser(UUID publicId, UpdateUserDTO updateUserDTO) {
@@ -106,6 +219,7 @@ public class UserService {
             user.setImageUrl(updateUserDTO.getImageUrl());
         }
 
+        principalCache.evict(user.getEmail());
         User updatedUser = userRepository.save(user);
         log.info("User updated successfully with publicId: {}", publicId);
 
@@ -118,6 +232,7 @@ public class UserService {
         User user = userRepository.findByPublicId(publicId)
                 .orElseThrow(() -> new NotFoundException("User not found with publicId: " + publicId));
 
+        principalCache.evict(user.getEmail());
         userRepository.delete(user);
         log.info("User deleted successfully with publicId: {}", publicId);
     }
@@ -132,6 +247,7 @@ public class UserService {
                 .orElseThrow(() -> new NotFoundException("Authority not found: " + authorityName));
 
         user.addAuthority(authority);
+        principalCache.evict(user.getEmail());
         User updatedUser = userRepository.save(user);
 
         log.info("Authority added successfully to user with publicId: {}", publicId);
@@ -148,15 +264,46 @@ public class UserService {
                 .orElseThrow(() -> new NotFoundException("Authority not found: " + authorityName));
 
         user.removeAuthority(authority);
+        principalCache.evict(user.getEmail());
         User updatedUser = userRepository.save(user);
 
         log.info("Authority removed successfully from user with publicId: {}", publicId);
         return userMapper.toDTO(updatedUser);
     }
 
-    public User getOrCreateUserFromOAuth(String email, String firstName, String lastName, String imageUrl) {
-        return userRepository.findByEmail(email)
-                .orElseGet(() -> {
+    /**
+     * Store a hash re-computed with the current BCrypt cost after a successful login
+     */
+    public void upgradePasswordHash(UUID publicId, String email, String currentHash, String upgradedHash) {
+        if (userRepository.updatePasswordHash(publicId, currentHash, upgradedHash) > 0) {
+            principalCache.evict(email);
+            log.info("Password hash upgraded for user with publicId: {}", publicId);
+        }
+    }
+
+    /**
+     * Find or create the user behind an OAuth login.
+     *
+     * Concurrent logins for the same email share one attempt. An existing user costs a
+     * single query; a new one is inserted in its own transaction with a reference to the
+     * tenant authority (no lookup). If another node wins the insert race, the unique email
+     * constraint fails ours and the winner's row is read instead.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UserDTO getOrCreateUserFromOAuth(String email, String firstName, String lastName, String imageUrl) {
+        return oauthProvisioningSingleFlight.execute(email.trim().toLowerCase(Locale.ROOT), () -> {
+            TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+            readOnlyTransaction.setReadOnly(true);
+
+            UserDTO existing = readOnlyTransaction.execute(status -> findUserDTOByEmail(email));
+            if (existing != null) {
+                return existing;
+            }
+
+            TransactionTemplate insertTransaction = new TransactionTemplate(transactionManager);
+            insertTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            try {
+                return insertTransaction.execute(status -> {
                     log.info("Creating new user from OAuth with email: {}", email);
                     CreateUserDTO createUserDTO = CreateUserDTO.builder()
                             .email(email)
@@ -164,15 +311,60 @@ public class UserService {
                             .lastName(lastName)
                             .imageUrl(imageUrl)
                             .build();
-                    
+
                     User user = userMapper.toEntity(createUserDTO);
                     user.setVerified(true); // OAuth users are pre-verified
-                    
-                    Authority tenantAuthority = authorityRepository.findByName(AuthorityConstant.ROLE_TENANT)
-                            .orElseThrow(() -> new NotFoundException("Default authority not found"));
-                    user.addAuthority(tenantAuthority);
-                    
-                    return userRepository.save(user);
+                    user.addAuthority(authorityRepository.getReferenceById(AuthorityConstant.ROLE_TENANT));
+
+                    return userMapper.toDTO(userRepository.saveAndFlush(user));
                 });
+            } catch (DataIntegrityViolationException e) {
+                log.info("OAuth user {} was created concurrently, reading it back", email);
+                UserDTO created = readOnlyTransaction.execute(status -> findUserDTOByEmail(email));
+                if (created == null) {
+                    throw e;
+                }
+                return created;
+            }
+        });
+    }
+
+    private UserDTO findUserDTOByEmail(String email) {
+        return userRepository.findByEmailWithAuthorities(email)
+                .map(userMapper::toDTO)
+                .orElse(null);
+    }
+
+    private Map<Long, Set<String>> findAuthorityNames(List<UserBrowseRepository.UserRow> rows) {
+        return userBrowseRepository.findAuthorityNames(rows.stream()
+                .map(UserBrowseRepository.UserRow::id)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Accept role names with or without the ROLE_ prefix
+     */
+    private UserFilter normalize(UserFilter filter) {
+        if (filter.authority() == null || filter.authority().isBlank()) {
+            return new UserFilter(null, filter.verified(), filter.createdFrom(), filter.createdTo());
+        }
+        String authority = filter.authority().trim().toUpperCase();
+        if (!authority.startsWith(ROLE_PREFIX)) {
+            authority = ROLE_PREFIX + authority;
+        }
+        return new UserFilter(authority, filter.verified(), filter.createdFrom(), filter.createdTo());
+    }
+
+    private UserBrowseRepository.Position decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        String[] parts = CursorUtil.decode(cursor, 2);
+        try {
+            return new UserBrowseRepository.Position(Timestamp.valueOf(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
     }
 }
\ No newline at end of file
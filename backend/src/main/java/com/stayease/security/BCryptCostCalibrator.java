@@ -0,0 +1,54 @@
+package com.stayease.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.util.Arrays;
+
+/**
+ * Picks the BCrypt cost for this node: the highest cost whose hash time stays within
+ * the target latency, never below the floor. Each cost step doubles the work, so the
+ * search stops at the first cost that overshoots.
+ */
+@Slf4j
+public final class BCryptCostCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+    private static final int SAMPLES_PER_COST = 3;
+
+    private BCryptCostCalibrator() {
+        // Utility class
+    }
+
+    public static int calibrate(long targetMillis, int minCost, int maxCost) {
+        // Warm up the JIT so the first measured cost is not inflated
+        BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(4));
+
+        int chosen = minCost;
+        for (int cost = minCost; cost <= maxCost; cost++) {
+            long millis = medianHashMillis(cost);
+            if (millis > targetMillis) {
+                break;
+            }
+            chosen = cost;
+            // The next cost takes about twice as long, skip it if that would overshoot
+            if (millis * 2 > targetMillis) {
+                break;
+            }
+        }
+
+        log.info("BCrypt cost calibrated to {} (target {} ms, range {}..{})", chosen, targetMillis, minCost, maxCost);
+        return chosen;
+    }
+
+    private static long medianHashMillis(int cost) {
+        long[] samples = new long[SAMPLES_PER_COST];
+        for (int i = 0; i < SAMPLES_PER_COST; i++) {
+            long started = System.nanoTime();
+            BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(cost));
+            samples[i] = (System.nanoTime() - started) / 1_000_000;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES_PER_COST / 2];
+    }
+}
@@ -0,0 +1,273 @@
+package com.stayease.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stayease.shared.dto.ErrorDTO;
+import com.stayease.shared.util.SingleFlight;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Makes POST requests on the configured paths safe to retry when they carry an
+ * Idempotency-Key header.
+ *
+ * The first request with a key runs normally and its response is stored in
+ * {@link IdempotencyStore}; retries with the same key and the same request get that response
+ * replayed (marked with Idempotent-Replayed: true) until the key expires. Concurrent
+ * duplicates on this node are coalesced through a SingleFlight and share the first response;
+ * a duplicate arriving while another node still processes the key gets 409 with Retry-After.
+ * Reusing a key for a different request (method, path, query or body) is rejected with 422.
+ * Server errors are replayed to coalesced duplicates but not stored, so a later retry runs again.
+ * The body is buffered to fingerprint it, so requests larger than maxRequestBytes get 413.
+ *
+ * Runs after RateLimitFilter, so keys are scoped per client the same way and throttled
+ * requests never claim a key. Created by SecurityConfiguration rather than registered as a bean.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final SingleFlight<String, IdempotencyStore.Entry> singleFlight;
+    private final List<String> pathPrefixes;
+    private final int maxBodyBytes;
+    private final int maxRequestBytes;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param maxBodyBytes    largest response body that is stored for replay
+     * @param maxRequestBytes largest request body that is accepted
+     * @param objectMapper    must support java.time, see JacksonConfig
+     */
+    public IdempotencyFilter(IdempotencyStore store, SingleFlight<String, IdempotencyStore.Entry> singleFlight,
+                             List<String> pathPrefixes, int maxBodyBytes, int maxRequestBytes, ObjectMapper objectMapper) {
+        this.store = store;
+        this.singleFlight = singleFlight;
+        this.pathPrefixes = pathPrefixes;
+        this.maxBodyBytes = maxBodyBytes;
+        this.maxRequestBytes = maxRequestBytes;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        // Match whole path segments: /api/bookings covers /api/bookings/holds but not /api/bookingsX
+        return pathPrefixes.stream().noneMatch(prefix -> path.equals(prefix) || path.startsWith(prefix + "/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(request, response, HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        byte[] body = request.getContentLengthLong() > maxRequestBytes
+                ? null
+                : request.getInputStream().readNBytes(maxRequestBytes + 1);
+        if (body == null || body.length > maxRequestBytes) {
+            writeError(request, response, HttpStatus.CONTENT_TOO_LARGE,
+                    "Requests with an " + IDEMPOTENCY_KEY_HEADER + " may be at most " + maxRequestBytes + " bytes");
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+        String scope = RateLimitFilter.clientKey(request);
+        String requestHash = fingerprint(cachedRequest);
+
+        AtomicBoolean processedHere = new AtomicBoolean();
+        IdempotencyStore.Entry entry;
+        try {
+            entry = singleFlight.execute(scope + '\n' + key, () ->
+                    process(cachedRequest, response, filterChain, scope, key, requestHash, processedHere));
+        } catch (FilterChainException e) {
+            if (e.getCause() instanceof ServletException servletException) {
+                throw servletException;
+            }
+            throw (IOException) e.getCause();
+        }
+
+        if (!processedHere.get()) {
+            replay(request, response, entry, requestHash);
+        }
+    }
+
+    private IdempotencyStore.Entry process(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                                           String scope, String key, String requestHash, AtomicBoolean processedHere) {
+        Optional<IdempotencyStore.Entry> existing = store.claim(scope, key, requestHash);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        processedHere.set(true);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, wrapper);
+
+            IdempotencyStore.Entry entry = new IdempotencyStore.Entry(requestHash, true, wrapper.getStatus(),
+                    wrapper.getContentType(), wrapper.getContentAsByteArray());
+            if (entry.status() < 500 && entry.body().length <= maxBodyBytes) {
+                store.complete(scope, key, entry);
+                stored = true;
+            }
+            wrapper.copyBodyToResponse();
+            return entry;
+        } catch (IOException | ServletException e) {
+            throw new FilterChainException(e);
+        } finally {
+            if (!stored) {
+                store.release(scope, key);
+            }
+        }
+    }
+
+    private void replay(HttpServletRequest request, HttpServletResponse response, IdempotencyStore.Entry entry,
+                        String requestHash) throws IOException {
+        if (!entry.requestHash().equals(requestHash)) {
+            writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+            return;
+        }
+        if (!entry.completed()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            writeError(request, response, HttpStatus.CONFLICT,
+                    "A request with this " + IDEMPOTENCY_KEY_HEADER + " is still being processed");
+            return;
+        }
+
+        response.setStatus(entry.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (entry.contentType() != null) {
+            response.setContentType(entry.contentType());
+        }
+        if (entry.body() != null && entry.body().length > 0) {
+            response.setContentLength(entry.body().length);
+            response.getOutputStream().write(entry.body());
+        }
+    }
+
+    private void writeError(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        ErrorDTO errorDTO = ErrorDTO.builder()
+                .timestamp(Instant.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .path(request.getRequestURI())
+                .build();
+
+        objectMapper.writeValue(response.getOutputStream(), errorDTO);
+    }
+
+    /**
+     * SHA-256 over method, path, query string and body
+     */
+    private static String fingerprint(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + ' ' + request.getRequestURI() + '?' + request.getQueryString() + '\n')
+                    .getBytes(StandardCharsets.UTF_8));
+            digest.update(request.body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Reads the body once so it can be fingerprinted and then read again by the controller
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException("Async reads are not supported");
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            try {
+                return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+            } catch (UnsupportedEncodingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Carries a checked exception of the filter chain out of the SingleFlight loader
+     */
+    private static final class FilterChainException extends RuntimeException {
+
+        FilterChainException(Exception cause) {
+            super(cause);
+        }
+    }
+}
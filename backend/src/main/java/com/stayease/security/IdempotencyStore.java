@@ -0,0 +1,158 @@
+package com.stayease.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stored responses for Idempotency-Key requests, see {@link IdempotencyFilter}.
+ *
+ * The idempotency_key table is the source of truth shared by all nodes: a request claims its
+ * key with an IN_PROGRESS row (INSERT ... ON CONFLICT DO NOTHING), and the row is completed
+ * with the response or deleted if the response is not worth replaying. Completed entries are
+ * also kept in a bounded in-memory hot set, so retries usually never reach the database.
+ * Expired rows are purged in batches.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    private static final String DELETE_LAPSED_SQL =
+            "DELETE FROM idempotency_key WHERE scope = ? AND idempotency_key = ? AND expires_at <= ?";
+
+    private static final String CLAIM_SQL =
+            "INSERT INTO idempotency_key (scope, idempotency_key, request_hash, status, expires_at) " +
+            "VALUES (?, ?, ?, 'IN_PROGRESS', ?) ON CONFLICT (scope, idempotency_key) DO NOTHING";
+
+    private static final String FIND_SQL =
+            "SELECT request_hash, status, response_status, content_type, response_body FROM idempotency_key " +
+            "WHERE scope = ? AND idempotency_key = ? AND expires_at > ?";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE idempotency_key SET status = 'COMPLETED', response_status = ?, content_type = ?, " +
+            "response_body = ?, expires_at = ? WHERE scope = ? AND idempotency_key = ?";
+
+    private static final String RELEASE_SQL =
+            "DELETE FROM idempotency_key WHERE scope = ? AND idempotency_key = ? AND status = 'IN_PROGRESS'";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM idempotency_key WHERE (scope, idempotency_key) IN (" +
+            "SELECT scope, idempotency_key FROM idempotency_key WHERE expires_at <= ? LIMIT ?)";
+
+    private static final RowMapper<Entry> ENTRY_MAPPER = (rs, rowNum) -> new Entry(
+            rs.getString("request_hash"),
+            "COMPLETED".equals(rs.getString("status")),
+            rs.getInt("response_status"),
+            rs.getString("content_type"),
+            rs.getBytes("response_body"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+    private final int purgeBatchSize;
+    private final Cache<Key, Entry> hotSet;
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate,
+                            @Value("${app.security.idempotency.ttl-hours:24}") long ttlHours,
+                            @Value("${app.security.idempotency.claim-timeout-seconds:60}") long claimTimeoutSeconds,
+                            @Value("${app.security.idempotency.hot-set-size:10000}") long hotSetSize,
+                            @Value("${app.security.idempotency.purge.batch-size:1000}") int purgeBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.claimTimeout = Duration.ofSeconds(claimTimeoutSeconds);
+        this.purgeBatchSize = purgeBatchSize;
+        this.hotSet = Caffeine.newBuilder()
+                .maximumSize(hotSetSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Claim a key for a new request. Returns empty when the caller now owns the key and must
+     * process the request, otherwise the entry of the request that got there first.
+     */
+    public Optional<Entry> claim(String scope, String idempotencyKey, String requestHash) {
+        Entry hot = hotSet.getIfPresent(new Key(scope, idempotencyKey));
+        if (hot != null) {
+            return Optional.of(hot);
+        }
+
+        Instant now = Instant.now();
+        // A lapsed claim (its request never completed) or an expired response frees the key
+        jdbcTemplate.update(DELETE_LAPSED_SQL, scope, idempotencyKey, Timestamp.from(now));
+        int inserted = jdbcTemplate.update(CLAIM_SQL, scope, idempotencyKey, requestHash,
+                Timestamp.from(now.plus(claimTimeout)));
+        if (inserted == 1) {
+            return Optional.empty();
+        }
+
+        List<Entry> rows = jdbcTemplate.query(FIND_SQL, ENTRY_MAPPER, scope, idempotencyKey, Timestamp.from(now));
+        if (rows.isEmpty()) {
+            // Released between our insert and read; report it as busy so the client retries
+            return Optional.of(Entry.inProgress(requestHash));
+        }
+        Entry entry = rows.get(0);
+        if (entry.completed()) {
+            hotSet.put(new Key(scope, idempotencyKey), entry);
+        }
+        return Optional.of(entry);
+    }
+
+    /**
+     * Store the response of a claimed key for replay until the TTL runs out
+     */
+    public void complete(String scope, String idempotencyKey, Entry entry) {
+        jdbcTemplate.update(COMPLETE_SQL, entry.status(), entry.contentType(), entry.body(),
+                Timestamp.from(Instant.now().plus(ttl)), scope, idempotencyKey);
+        hotSet.put(new Key(scope, idempotencyKey), entry);
+    }
+
+    /**
+     * Give up a claimed key without storing a response, so the request can be retried
+     */
+    public void release(String scope, String idempotencyKey) {
+        jdbcTemplate.update(RELEASE_SQL, scope, idempotencyKey);
+    }
+
+    /**
+     * Delete expired keys, purge.batch-size rows per statement to keep locks and WAL bursts short
+     */
+    @Scheduled(fixedDelayString = "${app.security.idempotency.purge.interval-ms:300000}")
+    public void purgeExpired() {
+        Timestamp now = Timestamp.from(Instant.now());
+        long purged = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, now, purgeBatchSize);
+            purged += deleted;
+        } while (deleted == purgeBatchSize);
+
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /**
+     * The request that owns a key and, once completed, its response
+     */
+    public record Entry(String requestHash, boolean completed, int status, String contentType, byte[] body) {
+
+        static Entry inProgress(String requestHash) {
+            return new Entry(requestHash, false, 0, null, null);
+        }
+    }
+
+    private record Key(String scope, String idempotencyKey) {
+    }
+}
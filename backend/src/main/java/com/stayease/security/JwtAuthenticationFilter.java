@@ -0,0 +1,128 @@
+package com.stayease.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Authenticates "Authorization: Bearer" requests with tokens from {@link JwtTokenProvider}.
+ *
+ * Verified tokens are cached for a short time under the SHA-256 of the token, so repeat
+ * requests with the same token skip signature verification and claim parsing. Invalid
+ * tokens leave the request unauthenticated; protected endpoints then answer 401.
+ *
+ * Authorities come from {@link PrincipalCache} on every request rather than from the
+ * token's roles claim, so a removed role or a deleted user takes effect as soon as the
+ * entry is evicted instead of when the token expires.
+ *
+ * Created by SecurityConfiguration rather than as a bean, so it only runs inside the
+ * security filter chain.
+ */
+@Slf4j
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final PrincipalCache principalCache;
+    private final Cache<String, Jwt> verifiedTokens;
+
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, PrincipalCache principalCache,
+                                   long cacheMaxSize, Duration cacheTtl) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.principalCache = principalCache;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            String token = header.substring(BEARER_PREFIX.length()).trim();
+            Jwt jwt = resolve(token);
+            List<GrantedAuthority> authorities = jwt != null ? currentAuthorities(jwt) : null;
+            if (authorities != null) {
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(new JwtAuthenticationToken(jwt, authorities, jwt.getSubject()));
+                SecurityContextHolder.setContext(context);
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private Jwt resolve(String token) {
+        String key = hash(token);
+        Jwt cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            // The cache TTL may outlive the token itself
+            if (cached.getExpiresAt() == null || cached.getExpiresAt().isAfter(Instant.now())) {
+                return cached;
+            }
+            verifiedTokens.invalidate(key);
+            return null;
+        }
+
+        try {
+            Jwt jwt = jwtTokenProvider.verify(token);
+            verifiedTokens.put(key, jwt);
+            return jwt;
+        } catch (JwtException e) {
+            log.debug("Rejected bearer token: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Current authorities of the token's user, or null when the user no longer exists
+     * under the token's email and publicId (deleted, or the email was changed)
+     */
+    private List<GrantedAuthority> currentAuthorities(Jwt jwt) {
+        String email = jwt.getClaimAsString(JwtTokenProvider.EMAIL_CLAIM);
+        if (email == null) {
+            return null;
+        }
+        return principalCache.getByEmail(email)
+                .filter(principal -> principal.publicId().toString().equals(jwt.getSubject()))
+                .map(principal -> principal.authorities().stream()
+                        .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toList()))
+                .orElse(null);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
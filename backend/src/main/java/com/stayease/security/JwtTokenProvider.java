@@ -1,5 +1,89 @@
 package com.stayease.security;
 
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Issues and verifies self-contained HS256 access tokens signed with app.security.jwt.secret.
+ *
+ * Tokens carry the user's publicId as subject plus email and roles claims, so a request
+ * is authenticated without any remote call. The roles claim is informational; request
+ * authorities are resolved from PrincipalCache by JwtAuthenticationFilter.
+ */
+@Component
 public class JwtTokenProvider {
-    
+
+    public static final String EMAIL_CLAIM = "email";
+    public static final String ROLES_CLAIM = "roles";
+
+    // HS256 requires a key of at least 256 bits
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final JwtEncoder encoder;
+    private final JwtDecoder decoder;
+    private final String issuer;
+    private final Duration expiration;
+
+    public JwtTokenProvider(@Value("${app.security.jwt.secret}") String secret,
+                            @Value("${app.security.jwt.issuer:stayease}") String issuer,
+                            @Value("${app.security.jwt.expiration-ms:86400000}") long expirationMs) {
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("app.security.jwt.secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        SecretKey key = new SecretKeySpec(secretBytes, "HmacSHA256");
+
+        this.encoder = new NimbusJwtEncoder(new ImmutableSecret<SecurityContext>(key));
+        NimbusJwtDecoder nimbusDecoder = NimbusJwtDecoder.withSecretKey(key)
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+        nimbusDecoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuer));
+        this.decoder = nimbusDecoder;
+        this.issuer = issuer;
+        this.expiration = Duration.ofMillis(expirationMs);
+    }
+
+    /**
+     * Issue an access token for a user
+     */
+    public Jwt createToken(UUID publicId, String email, Collection<String> roles) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(issuer)
+                .subject(publicId.toString())
+                .issuedAt(now)
+                .expiresAt(now.plus(expiration))
+                .claim(EMAIL_CLAIM, email)
+                .claim(ROLES_CLAIM, List.copyOf(roles))
+                .build();
+
+        JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+        return encoder.encode(JwtEncoderParameters.from(header, claims));
+    }
+
+    /**
+     * Verify signature, issuer and expiry of a token
+     *
+     * @throws JwtException if the token is not valid
+     */
+    public Jwt verify(String token) {
+        return decoder.decode(token);
+    }
+
+    public Duration getExpiration() {
+        return expiration;
+    }
 }
@@ -0,0 +1,82 @@
+package com.stayease.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Sliding-window count of failed local logins per account.
+ *
+ * Each account keeps the times of its last maxFailures failures in a small ring; once the
+ * oldest of them is still inside the window the account is locked until it slides out.
+ * Entries expire after a quiet window and the map is size-bounded, so memory stays flat
+ * even under credential stuffing. State is per node.
+ */
+@Component
+public class LoginAttemptTracker {
+
+    private final int maxFailures;
+    private final long windowMillis;
+    private final Cache<String, FailureWindow> failures;
+
+    public LoginAttemptTracker(@Value("${app.security.login.max-failures:5}") int maxFailures,
+                               @Value("${app.security.login.window-seconds:900}") long windowSeconds,
+                               @Value("${app.security.login.max-tracked-accounts:100000}") long maxTrackedAccounts) {
+        this.maxFailures = Math.max(1, maxFailures);
+        this.windowMillis = Duration.ofSeconds(windowSeconds).toMillis();
+        this.failures = Caffeine.newBuilder()
+                .maximumSize(maxTrackedAccounts)
+                .expireAfterAccess(Duration.ofSeconds(windowSeconds))
+                .build();
+    }
+
+    /**
+     * Milliseconds until the account may try again, or 0 when it is not locked
+     */
+    public long lockedForMillis(String email) {
+        FailureWindow window = failures.getIfPresent(key(email));
+        return window == null ? 0L : window.lockedForMillis(System.currentTimeMillis(), windowMillis);
+    }
+
+    public void recordFailure(String email) {
+        failures.get(key(email), k -> new FailureWindow(maxFailures)).record(System.currentTimeMillis());
+    }
+
+    public void reset(String email) {
+        failures.invalidate(key(email));
+    }
+
+    private static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class FailureWindow {
+
+        private final long[] times;
+        private int next;
+        private int count;
+
+        FailureWindow(int size) {
+            this.times = new long[size];
+        }
+
+        synchronized void record(long now) {
+            times[next] = now;
+            next = (next + 1) % times.length;
+            count = Math.min(count + 1, times.length);
+        }
+
+        synchronized long lockedForMillis(long now, long windowMillis) {
+            if (count < times.length) {
+                return 0L;
+            }
+            // With a full ring, 'next' points at the oldest recorded failure
+            long unlockAt = times[next] + windowMillis;
+            return Math.max(0L, unlockAt - now);
+        }
+    }
+}
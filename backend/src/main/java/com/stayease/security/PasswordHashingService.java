@@ -0,0 +1,138 @@
+package com.stayease.security;
+
+import com.stayease.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs password hashing and verification on a small dedicated pool, so a burst of
+ * registrations or logins cannot pin every web worker on BCrypt.
+ *
+ * The pool queue is bounded; when it is full the request fails fast with a 503 instead
+ * of piling up behind CPU-bound work.
+ */
+@Service
+@Slf4j
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final String dummyHash;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${app.security.password.pool-size:0}") int poolSize,
+                                  @Value("${app.security.password.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.security.password.timeout-ms:5000}") long timeoutMillis) {
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMillis = timeoutMillis;
+        this.dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password hashing pool started with {} threads, queue capacity {}", threads, queueCapacity);
+    }
+
+    public String hash(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Verify a password and report whether its hash was made with an outdated cost.
+     * A missing hash is still checked against a dummy one, so unknown accounts take
+     * as long to reject as wrong passwords.
+     */
+    public PasswordCheck verify(String rawPassword, String encodedPassword) {
+        return run(() -> {
+            if (encodedPassword == null) {
+                passwordEncoder.matches(rawPassword, dummyHash);
+                return PasswordCheck.FAILED;
+            }
+            if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+                return PasswordCheck.FAILED;
+            }
+            return new PasswordCheck(true, passwordEncoder.upgradeEncoding(encodedPassword));
+        });
+    }
+
+    /**
+     * Re-hash a password with the current cost in the background and hand the new hash
+     * to the callback. Skipped when the pool is busy; the next login will try again.
+     */
+    public void upgradeAsync(String rawPassword, Consumer<String> onHashed) {
+        try {
+            executor.execute(() -> {
+                try {
+                    onHashed.accept(passwordEncoder.encode(rawPassword));
+                } catch (RuntimeException e) {
+                    log.warn("Password hash upgrade failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Password hashing pool saturated, skipping hash upgrade");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Password hashing pool saturated, rejecting request");
+            throw new ServiceUnavailableException("Server is busy, please retry shortly");
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ServiceUnavailableException("Server is busy, please retry shortly");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Password operation interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password operation failed", e.getCause());
+        }
+    }
+
+    /**
+     * Result of a password verification; needsUpgrade is set when the stored hash uses an outdated cost
+     */
+    public record PasswordCheck(boolean matches, boolean needsUpgrade) {
+
+        static final PasswordCheck FAILED = new PasswordCheck(false, false);
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
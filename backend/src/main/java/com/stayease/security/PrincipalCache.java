@@ -0,0 +1,76 @@
+package com.stayease.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stayease.domain.user.entity.User;
+import com.stayease.domain.user.repository.UserRepository;
+import com.stayease.shared.util.TransactionUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Per-node cache from a principal's email to its user publicId, authority names and
+ * password hash, so resolving the current user or checking a local login normally
+ * costs no query.
+ *
+ * UserService evicts entries when a user or their authorities change; the TTL bounds
+ * how long other nodes can serve a stale entry. Unknown emails are not cached.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, CachedPrincipal> principals;
+
+    public PrincipalCache(UserRepository userRepository,
+                          @Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${app.security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public Optional<CachedPrincipal> getByEmail(String email) {
+        return Optional.ofNullable(principals.get(email, key -> userRepository.findByEmailWithAuthorities(key)
+                .map(CachedPrincipal::of)
+                .orElse(null)));
+    }
+
+    /**
+     * Evict now and again after the current transaction commits, so a lookup racing
+     * with the change cannot re-cache the old state
+     */
+    public void evict(String email) {
+        if (email == null) {
+            return;
+        }
+        principals.invalidate(email);
+        TransactionUtil.afterCommit(() -> principals.invalidate(email));
+    }
+
+    /**
+     * passwordHash is kept so local logins need no query; it is left out of toString
+     */
+    public record CachedPrincipal(UUID publicId, Set<String> authorities, String passwordHash) {
+
+        static CachedPrincipal of(User user) {
+            Set<String> authorities = user.getAuthorities().stream()
+                    .map(userAuthority -> userAuthority.getAuthority().getName())
+                    .collect(Collectors.toUnmodifiableSet());
+            return new CachedPrincipal(user.getPublicId(), authorities, user.getPasswordHash());
+        }
+
+        @Override
+        public String toString() {
+            return "CachedPrincipal[publicId=" + publicId + ", authorities=" + authorities + "]";
+        }
+    }
+}
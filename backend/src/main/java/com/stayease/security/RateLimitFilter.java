@@ -0,0 +1,106 @@
+package com.stayease.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stayease.shared.dto.ErrorDTO;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles search, auth and write requests with {@link RateLimiter} buckets, answering
+ * 429 with Retry-After once a client runs out of tokens.
+ *
+ * Runs right after JwtAuthenticationFilter so authenticated clients are limited by user
+ * publicId and anonymous ones by IP address. Like that filter it is created by
+ * SecurityConfiguration rather than registered as a bean.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param objectMapper must support java.time, see JacksonConfig
+     */
+    public RateLimitFilter(RateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled() || routeGroupOf(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimiter.RouteGroup group = routeGroupOf(request);
+        long waitNanos = rateLimiter.tryAcquire(group, clientKey(request));
+        if (waitNanos > 0) {
+            reject(request, response, waitNanos);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static RateLimiter.RouteGroup routeGroupOf(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String method = request.getMethod();
+
+        if (path.startsWith("/api/auth/")) {
+            return RateLimiter.RouteGroup.AUTH;
+        }
+        if (!path.startsWith("/api/") || HttpMethod.OPTIONS.matches(method)) {
+            return null;
+        }
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)) {
+            return path.startsWith("/api/listings") ? RateLimiter.RouteGroup.SEARCH : null;
+        }
+        if (path.equals("/api/listings/quotes")) {
+            // Read-only batch quote, sized like a search page
+            return RateLimiter.RouteGroup.SEARCH;
+        }
+        return RateLimiter.RouteGroup.WRITES;
+    }
+
+    static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthenticationToken jwtAuthentication) {
+            return "user:" + jwtAuthentication.getToken().getSubject();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1L, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        ErrorDTO errorDTO = ErrorDTO.builder()
+                .timestamp(Instant.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error("Too Many Requests")
+                .message("Rate limit exceeded, retry after " + retryAfterSeconds + " seconds")
+                .path(request.getRequestURI())
+                .build();
+
+        objectMapper.writeValue(response.getOutputStream(), errorDTO);
+    }
+}
@@ -0,0 +1,108 @@
+package com.stayease.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets per route group and client (user publicId or IP address).
+ *
+ * Each bucket is a single AtomicLong holding its "theoretical arrival time" (GCRA), so
+ * taking a token is one CAS and never blocks. Buckets live in a size-bounded cache and
+ * expire after being idle, so a flood of distinct IPs cannot grow the heap without limit;
+ * an evicted bucket simply comes back full.
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+
+    private final boolean enabled;
+    private final Map<RouteGroup, Limit> limits = new EnumMap<>(RouteGroup.class);
+    private final Cache<BucketKey, TokenBucket> buckets;
+
+    public RateLimiter(@Value("${app.security.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${app.security.rate-limit.max-buckets:100000}") long maxBuckets,
+                       @Value("${app.security.rate-limit.idle-seconds:600}") long idleSeconds,
+                       @Value("${app.security.rate-limit.search.capacity:60}") long searchCapacity,
+                       @Value("${app.security.rate-limit.search.refill-per-second:10}") double searchRefill,
+                       @Value("${app.security.rate-limit.auth.capacity:10}") long authCapacity,
+                       @Value("${app.security.rate-limit.auth.refill-per-second:0.2}") double authRefill,
+                       @Value("${app.security.rate-limit.writes.capacity:30}") long writesCapacity,
+                       @Value("${app.security.rate-limit.writes.refill-per-second:2}") double writesRefill) {
+        this.enabled = enabled;
+        this.limits.put(RouteGroup.SEARCH, new Limit(searchCapacity, searchRefill));
+        this.limits.put(RouteGroup.AUTH, new Limit(authCapacity, authRefill));
+        this.limits.put(RouteGroup.WRITES, new Limit(writesCapacity, writesRefill));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(Duration.ofSeconds(idleSeconds))
+                .build();
+        log.info("Rate limiting {}: {}", enabled ? "enabled" : "disabled", limits);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Take one token for the client; returns 0 when allowed, otherwise the nanoseconds
+     * until a token is available
+     */
+    public long tryAcquire(RouteGroup group, String clientKey) {
+        Limit limit = limits.get(group);
+        TokenBucket bucket = buckets.get(new BucketKey(group, clientKey), key -> new TokenBucket(limit));
+        return bucket.tryAcquire(System.nanoTime());
+    }
+
+    public enum RouteGroup {
+        SEARCH, AUTH, WRITES
+    }
+
+    private record BucketKey(RouteGroup group, String clientKey) {
+    }
+
+    /**
+     * capacity tokens of burst, refilled at refillPerSecond
+     */
+    private record Limit(long capacity, double refillPerSecond) {
+
+        long emissionIntervalNanos() {
+            return Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+        }
+    }
+
+    private static final class TokenBucket {
+
+        private final long emissionInterval;
+        private final long burstTolerance;
+        private final AtomicLong theoreticalArrival;
+
+        TokenBucket(Limit limit) {
+            this.emissionInterval = limit.emissionIntervalNanos();
+            this.burstTolerance = emissionInterval * Math.max(1L, limit.capacity());
+            this.theoreticalArrival = new AtomicLong(System.nanoTime());
+        }
+
+        long tryAcquire(long now) {
+            while (true) {
+                long current = theoreticalArrival.get();
+                long next = Math.max(current, now) + emissionInterval;
+                long excess = next - now - burstTolerance;
+                if (excess > 0) {
+                    return excess;
+                }
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    return 0L;
+                }
+            }
+        }
+    }
+}
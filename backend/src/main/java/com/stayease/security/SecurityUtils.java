@@ -1,7 +1,5 @@
 package com.stayease.security;
 
-import com.stayease.domain.user.entity.User;
-import com.stayease.domain.user.repository.UserRepository;
 import com.stayease.exception.UnauthorizedException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
@@ -15,7 +13,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class SecurityUtils {
 
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
     /**
      * Get the current authenticated user's publicId
@@ -38,10 +36,9 @@ public class SecurityUtils {
                 throw new UnauthorizedException("Email not found in JWT token");
             }
             
-            User user = userRepository.findByEmail(email)
+            return principalCache.getByEmail(email)
+                    .map(PrincipalCache.CachedPrincipal::publicId)
                     .orElseThrow(() -> new UnauthorizedException("User not found with email: " + email));
-            
-            return user.getPublicId();
         }
         
         // For UserPrincipal-based auth
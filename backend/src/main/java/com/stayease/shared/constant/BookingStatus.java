@@ -1,5 +1,16 @@
 package com.stayease.shared.constant;
 
-public class BookingStatus {
-    
+public enum BookingStatus {
+    PENDING,
+    CONFIRMED,
+    CANCELLED,
+    COMPLETED,
+    EXPIRED;
+
+    /**
+     * Whether a booking in this status occupies its dates
+     */
+    public boolean blocksDates() {
+        return this == PENDING || this == CONFIRMED;
+    }
 }
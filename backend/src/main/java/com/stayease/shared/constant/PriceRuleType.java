@@ -0,0 +1,7 @@
+package com.stayease.shared.constant;
+
+public enum PriceRuleType {
+    WEEKEND,
+    SEASON,
+    LENGTH_OF_STAY
+}
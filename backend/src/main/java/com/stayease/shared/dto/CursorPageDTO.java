@@ -0,0 +1,33 @@
+package com.stayease.shared.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Slice of results for cursor (keyset) pagination. There is no total count;
+ * pass nextCursor back to fetch the following slice.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    private int size;
+
+    public static <T> CursorPageDTO<T> of(List<T> content, String nextCursor) {
+        return CursorPageDTO.<T>builder()
+                .content(content)
+                .nextCursor(nextCursor)
+                .hasNext(nextCursor != null)
+                .size(content.size())
+                .build();
+    }
+}
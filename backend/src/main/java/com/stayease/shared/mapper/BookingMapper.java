@@ -1,5 +1,54 @@
 package com.stayease.shared.mapper;
 
+import com.stayease.domain.booking.dto.BookingAddonDTO;
+import com.stayease.domain.booking.dto.BookingDTO;
+import com.stayease.domain.booking.entity.Booking;
+import com.stayease.domain.booking.entity.BookingAddon;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Collectors;
+
+@Component
 public class BookingMapper {
-    
+
+    public BookingDTO toDTO(Booking booking) {
+        if (booking == null) {
+            return null;
+        }
+
+        return BookingDTO.builder()
+                .id(booking.getPublicId())
+                .listingId(booking.getListing() != null ? booking.getListing().getPublicId() : null)
+                .listingTitle(booking.getListing() != null ? booking.getListing().getTitle() : null)
+                .tenantPublicId(booking.getTenantPublicId())
+                .status(booking.getStatus())
+                .startDate(booking.getStartDate())
+                .endDate(booking.getEndDate())
+                .nights(booking.getNights())
+                .nbOfTravelers(booking.getNbOfTravelers())
+                .totalPrice(booking.getTotalPrice())
+                .currency(booking.getCurrency())
+                .addons(booking.getAddons().stream()
+                        .map(this::toAddonDTO)
+                        .collect(Collectors.toList()))
+                .holdExpiresAt(booking.getHoldExpiresAt())
+                .createdAt(booking.getCreatedAt())
+                .build();
+    }
+
+    public BookingAddonDTO toAddonDTO(BookingAddon addon) {
+        return BookingAddonDTO.builder()
+                .title(addon.getTitle())
+                .price(addon.getPrice())
+                .quantity(addon.getQuantity())
+                .build();
+    }
+
+    public BookingAddon toAddonEntity(BookingAddonDTO dto) {
+        return BookingAddon.builder()
+                .title(dto.getTitle())
+                .price(dto.getPrice())
+                .quantity(dto.getQuantity() != null ? dto.getQuantity() : 1)
+                .build();
+    }
 }
@@ -17,6 +17,7 @@ import java.time.ZonedDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Component
@@ -24,9 +25,18 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ListingMapper {
 
+    private static final TypeReference<Map<String, Boolean>> HOUSE_RULES_TYPE = new TypeReference<>() {};
+    private static final int MAX_CACHED_HOUSE_RULES = 1024;
+
     private final ObjectMapper objectMapper;
 
-    public ListingDTO toDTO(Listing listing) {
+    // House rules are a handful of flags, so distinct JSON values are few; parse each once
+    private final ConcurrentHashMap<String, Map<String, Boolean>> parsedHouseRules = new ConcurrentHashMap<>();
+
+    /**
+     * Map a listing; amenity names are passed in because the entity only holds their ids
+     */
+    public ListingDTO toDTO(Listing listing, List<String> amenities) {
         if (listing == null) {
             return null;
         }
@@ -54,7 +64,7 @@ public class ListingMapper {
                 .cleaningFee(listing.getCleaningFee())
                 .serviceFeePercentage(listing.getServiceFeePercentage())
                 .currency(listing.getCurrency())
-                .amenities(parseAmenities(listing.getAmenities()))
+                .amenities(amenities)
                 .checkInTime(listing.getCheckInTime())
                 .checkOutTime(listing.getCheckOutTime())
                 .minNights(listing.getMinNights())
@@ -104,7 +114,6 @@ public class ListingMapper {
                 .cleaningFee(dto.getCleaningFee())
                 .serviceFeePercentage(dto.getServiceFeePercentage())
                 .currency(dto.getCurrency() != null ? dto.getCurrency() : "USD")
-                .amenities(serializeAmenities(dto.getAmenities()))
                 .category(dto.getPropertyType())
                 .checkInTime(dto.getCheckInTime())
                 .checkOutTime(dto.getCheckOutTime())
@@ -179,9 +188,6 @@ public class ListingMapper {
         if (dto.getServiceFeePercentage() != null) {
             listing.setServiceFeePercentage(dto.getServiceFeePercentage());
         }
-        if (dto.getAmenities() != null) {
-            listing.setAmenities(serializeAmenities(dto.getAmenities()));
-        }
         if (dto.getCheckInTime() != null) {
             listing.setCheckInTime(dto.getCheckInTime());
         }
@@ -287,36 +293,20 @@ public class ListingMapper {
         return location.toString();
     }
 
-    private List<String> parseAmenities(String amenitiesJson) {
-        if (amenitiesJson == null || amenitiesJson.isBlank()) {
-            return Collections.emptyList();
-        }
-        try {
-            return objectMapper.readValue(amenitiesJson, new TypeReference<List<String>>() {});
-        } catch (JsonProcessingException e) {
-            log.error("Error parsing amenities JSON", e);
-            return Collections.emptyList();
-        }
-    }
-
-    private String serializeAmenities(List<String> amenities) {
-        if (amenities == null || amenities.isEmpty()) {
-            return null;
-        }
-        try {
-            return objectMapper.writeValueAsString(amenities);
-        } catch (JsonProcessingException e) {
-            log.error("Error serializing amenities", e);
-            return null;
-        }
-    }
-
     private Map<String, Boolean> parseHouseRules(String houseRulesJson) {
         if (houseRulesJson == null || houseRulesJson.isBlank()) {
             return Collections.emptyMap();
         }
+        Map<String, Boolean> cached = parsedHouseRules.get(houseRulesJson);
+        if (cached != null) {
+            return cached;
+        }
         try {
-            return objectMapper.readValue(houseRulesJson, new TypeReference<Map<String, Boolean>>() {});
+            Map<String, Boolean> parsed = Collections.unmodifiableMap(objectMapper.readValue(houseRulesJson, HOUSE_RULES_TYPE));
+            if (parsedHouseRules.size() < MAX_CACHED_HOUSE_RULES) {
+                parsedHouseRules.putIfAbsent(houseRulesJson, parsed);
+            }
+            return parsed;
         } catch (JsonProcessingException e) {
             log.error("Error parsing house rules JSON", e);
             return Collections.emptyMap();
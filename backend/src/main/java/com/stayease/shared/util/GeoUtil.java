@@ -0,0 +1,113 @@
+package com.stayease.shared.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Fixed 0.1 degree grid used by the listing geo_cell column.
+ *
+ * A cell key is row * GRID_COLUMNS + column, where row = floor((lat + 90) * 10) and
+ * column = floor((lng + 180) * 10). The backfill in 0012_add_listing_geo_cell.sql uses
+ * the same formula, so both must change together.
+ */
+public final class GeoUtil {
+
+    public static final int GRID_COLUMNS = 3601;
+    public static final double KM_PER_DEGREE_LATITUDE = 111.32;
+
+    // Above this many cells an IN list costs more than a plain range scan
+    public static final int MAX_INDEXED_CELLS = 1024;
+
+    private static final BigDecimal CELLS_PER_DEGREE = BigDecimal.TEN;
+    private static final BigDecimal LATITUDE_OFFSET = BigDecimal.valueOf(90);
+    private static final BigDecimal LONGITUDE_OFFSET = BigDecimal.valueOf(180);
+
+    private GeoUtil() {
+        // Utility class
+    }
+
+    public static Long cellOf(BigDecimal latitude, BigDecimal longitude) {
+        if (latitude == null || longitude == null) {
+            return null;
+        }
+        return (long) rowOf(latitude) * GRID_COLUMNS + columnOf(longitude);
+    }
+
+    /**
+     * Cells covering a bounding box, or empty when the box spans more than MAX_INDEXED_CELLS.
+     * A box with west > east crosses the antimeridian and is covered in two parts.
+     */
+    public static Optional<List<Long>> cellsCovering(double minLat, double maxLat, double west, double east) {
+        int minRow = rowOf(BigDecimal.valueOf(minLat));
+        int maxRow = rowOf(BigDecimal.valueOf(maxLat));
+
+        List<int[]> columnRanges = new ArrayList<>(2);
+        for (double[] range : longitudeRanges(west, east)) {
+            int[] columns = {columnOf(BigDecimal.valueOf(range[0])), columnOf(BigDecimal.valueOf(range[1]))};
+            if (columnRanges.isEmpty() || !Arrays.equals(columnRanges.get(0), columns)) {
+                columnRanges.add(columns);
+            }
+        }
+
+        long count = 0;
+        for (int[] columns : columnRanges) {
+            count += (long) (maxRow - minRow + 1) * (columns[1] - columns[0] + 1);
+        }
+        if (count > MAX_INDEXED_CELLS) {
+            return Optional.empty();
+        }
+
+        List<Long> cells = new ArrayList<>((int) count);
+        for (int[] columns : columnRanges) {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int column = columns[0]; column <= columns[1]; column++) {
+                    cells.add((long) row * GRID_COLUMNS + column);
+                }
+            }
+        }
+        return Optional.of(cells);
+    }
+
+    /**
+     * Longitude ranges {min, max} of a box from west to east. A box crossing the antimeridian
+     * (west > east) is split at it; otherwise the second range repeats the first, so queries
+     * can always bind two ranges.
+     */
+    public static double[][] longitudeRanges(double west, double east) {
+        if (west <= east) {
+            return new double[][]{{west, east}, {west, east}};
+        }
+        return new double[][]{{west, 180.0}, {-180.0, east}};
+    }
+
+    /**
+     * Longitude normalised into [-180, 180)
+     */
+    public static double wrapLongitude(double longitude) {
+        return ((longitude + 180.0) % 360.0 + 360.0) % 360.0 - 180.0;
+    }
+
+    /**
+     * Degrees of longitude covered by one kilometre at the given latitude
+     */
+    public static double longitudeDegreesPerKm(double latitude) {
+        double cos = Math.cos(Math.toRadians(latitude));
+        return 1.0 / (KM_PER_DEGREE_LATITUDE * Math.max(cos, 0.01));
+    }
+
+    public static double clampLatitude(double latitude) {
+        return Math.max(-90.0, Math.min(90.0, latitude));
+    }
+
+    private static int rowOf(BigDecimal latitude) {
+        return latitude.add(LATITUDE_OFFSET).multiply(CELLS_PER_DEGREE).setScale(0, RoundingMode.FLOOR).intValue();
+    }
+
+    private static int columnOf(BigDecimal longitude) {
+        return longitude.add(LONGITUDE_OFFSET).multiply(CELLS_PER_DEGREE).setScale(0, RoundingMode.FLOOR).intValue();
+    }
+}
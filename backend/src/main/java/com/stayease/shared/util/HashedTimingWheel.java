@@ -0,0 +1,284 @@
+package com.stayease.shared.util;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hashed timing wheel (Varghese and Lauck, scheme 6) for large numbers of coarse timeouts.
+ *
+ * The wheel is an array of buckets, one per tick; a timeout lands in the bucket of its
+ * deadline tick modulo the wheel size and carries the number of full rotations left.
+ * Scheduling and cancelling are O(1) and lock-free for callers: both only enqueue, and the
+ * single worker thread moves timeouts into buckets and unlinks cancelled ones (doubly linked
+ * lists) once per tick. Each tick the worker walks one bucket and hands due tasks to the
+ * task executor, so a slow task never delays the wheel.
+ *
+ * Deadlines are accurate to one tick. Tasks should be short and must handle their own errors.
+ */
+public class HashedTimingWheel {
+
+    // Bound on timeouts moved into buckets per tick, so a scheduling burst cannot stall ticks
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private static final int RUNNING = 0;
+    private static final int STOPPED = 1;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor taskExecutor;
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicLong scheduledCount = new AtomicLong();
+    private final AtomicInteger state = new AtomicInteger(RUNNING);
+    private final long startTime;
+    private final Thread worker;
+
+    // Only touched by the worker thread
+    private long tick;
+
+    /**
+     * @param ticksPerWheel rounded up to a power of two
+     */
+    public HashedTimingWheel(String name, Duration tickDuration, int ticksPerWheel, Executor taskExecutor) {
+        if (tickDuration.toMillis() < 1) {
+            throw new IllegalArgumentException("Tick duration must be at least 1 ms");
+        }
+        if (ticksPerWheel < 1 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("Ticks per wheel must be between 1 and 2^30");
+        }
+
+        this.tickNanos = tickDuration.toNanos();
+        int size = 1;
+        while (size < ticksPerWheel) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.taskExecutor = taskExecutor;
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Run task once delay has passed. Returns a handle that can cancel it.
+     */
+    public Timeout schedule(Runnable task, Duration delay) {
+        if (state.get() != RUNNING) {
+            throw new IllegalStateException("Timing wheel is stopped");
+        }
+        long deadline = System.nanoTime() - startTime + Math.max(0L, delay.toNanos());
+        Timeout timeout = new Timeout(this, task, deadline);
+        scheduledCount.incrementAndGet();
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Number of timeouts scheduled and neither expired nor cancelled
+     */
+    public long size() {
+        return scheduledCount.get();
+    }
+
+    /**
+     * Stop the worker; timeouts that have not fired yet are dropped
+     */
+    public void stop() {
+        if (!state.compareAndSet(RUNNING, STOPPED)) {
+            return;
+        }
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (state.get() == RUNNING) {
+            long now = waitForNextTick();
+            if (now < 0) {
+                break;
+            }
+            unlinkCancelled();
+            transferPending();
+            wheel[(int) (tick & mask)].expire(now);
+            tick++;
+        }
+    }
+
+    /**
+     * Sleep until the current tick ends; returns the time since start, or -1 when stopped
+     */
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long now = System.nanoTime() - startTime;
+            long sleepMillis = (deadline - now + 999_999) / 1_000_000;
+            if (sleepMillis <= 0) {
+                return now;
+            }
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                if (state.get() != RUNNING) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private void transferPending() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = pendingTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() != Timeout.WAITING) {
+                continue;
+            }
+            long deadlineTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (deadlineTick - tick) / wheel.length;
+            // Already overdue: fire on the current tick rather than a full rotation later
+            long targetTick = Math.max(deadlineTick, tick);
+            wheel[(int) (targetTick & mask)].add(timeout);
+        }
+    }
+
+    private void unlinkCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void fire(Timeout timeout) {
+        if (!timeout.state.compareAndSet(Timeout.WAITING, Timeout.EXPIRED)) {
+            return;
+        }
+        scheduledCount.decrementAndGet();
+        try {
+            taskExecutor.execute(timeout.task);
+        } catch (RejectedExecutionException e) {
+            // Executor shut down or saturated; run inline rather than lose the task
+            timeout.task.run();
+        }
+    }
+
+    /**
+     * Handle of a scheduled task
+     */
+    public static final class Timeout {
+
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final HashedTimingWheel timer;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        // Owned by the worker thread
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout prev;
+
+        private Timeout(HashedTimingWheel timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the task; returns false when it already fired or was cancelled
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            timer.scheduledCount.decrementAndGet();
+            timer.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts, only touched by the worker thread
+     */
+    private final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire(long now) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.state.get() == Timeout.CANCELLED) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0 && timeout.deadline <= now) {
+                    remove(timeout);
+                    fire(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -1,5 +1,154 @@
 package com.stayease.shared.util;
 
-public class PriceUtil {
-    
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Stay price quotes in integer minor units (cents for USD).
+ *
+ * Amounts are converted once at the edges with {@link #toMinor} / {@link #toMajor}; everything
+ * in between is long arithmetic, and percentages are basis points (12.5% = 1250). Every rounding
+ * step is half-up to a whole minor unit, so a quote is reproducible wherever it is computed.
+ *
+ * Nightly rate for a night: the latest-starting season containing it, otherwise the weekend
+ * rate on Friday and Saturday nights, otherwise the base rate. The best length-of-stay discount
+ * the stay qualifies for comes off the nightly total; the service fee is charged on the
+ * discounted nightly total plus the cleaning fee.
+ */
+public final class PriceUtil {
+
+    private static final long BASIS_POINTS = 10_000;
+    private static final int DEFAULT_FRACTION_DIGITS = 2;
+
+    private PriceUtil() {
+        // Utility class
+    }
+
+    /**
+     * Number of minor-unit digits of an ISO 4217 currency, 2 when unknown
+     */
+    public static int fractionDigits(String currency) {
+        try {
+            int digits = Currency.getInstance(currency).getDefaultFractionDigits();
+            return digits >= 0 ? digits : DEFAULT_FRACTION_DIGITS;
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return DEFAULT_FRACTION_DIGITS;
+        }
+    }
+
+    public static long toMinor(BigDecimal amount, int fractionDigits) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.movePointRight(fractionDigits).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static BigDecimal toMajor(long minor, int fractionDigits) {
+        return BigDecimal.valueOf(minor, fractionDigits);
+    }
+
+    /**
+     * Percentage (DECIMAL(5,2) column) as basis points
+     */
+    public static long toBasisPoints(BigDecimal percentage) {
+        if (percentage == null) {
+            return 0L;
+        }
+        return percentage.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * basisPoints of a non-negative amount, rounded half-up to a whole minor unit
+     */
+    public static long percentOf(long amount, long basisPoints) {
+        return (Math.multiplyExact(amount, basisPoints) + BASIS_POINTS / 2) / BASIS_POINTS;
+    }
+
+    /**
+     * Price a stay of the nights in [checkIn, checkOut)
+     */
+    public static Quote quote(PricingPlan plan, LocalDate checkIn, LocalDate checkOut) {
+        int from = (int) checkIn.toEpochDay();
+        int to = (int) checkOut.toEpochDay();
+        int nights = to - from;
+        if (nights <= 0) {
+            throw new IllegalArgumentException("Check-out must be after check-in");
+        }
+
+        long accommodation = 0L;
+        for (int day = from; day < to; day++) {
+            accommodation = Math.addExact(accommodation, nightlyRate(plan, day));
+        }
+
+        long discountBasisPoints = 0L;
+        for (StayDiscount discount : plan.discounts()) {
+            if (nights >= discount.minNights()) {
+                discountBasisPoints = Math.max(discountBasisPoints, discount.basisPoints());
+            }
+        }
+        long discount = percentOf(accommodation, discountBasisPoints);
+
+        long subtotal = accommodation - discount + plan.cleaningFee();
+        long serviceFee = percentOf(subtotal, plan.serviceFeeBasisPoints());
+        return new Quote(nights, accommodation, discount, plan.cleaningFee(), serviceFee, subtotal + serviceFee);
+    }
+
+    private static long nightlyRate(PricingPlan plan, int day) {
+        // Seasons are sorted by start, so the last match is the latest-starting one
+        long rate = -1L;
+        for (Season season : plan.seasons()) {
+            if (season.startDay() > day) {
+                break;
+            }
+            if (day < season.endDay()) {
+                rate = season.nightlyRate();
+            }
+        }
+        if (rate >= 0) {
+            return rate;
+        }
+        if (plan.weekendRate() != null && isWeekendNight(day)) {
+            return plan.weekendRate();
+        }
+        return plan.nightlyRate();
+    }
+
+    /**
+     * Friday and Saturday nights. Epoch day 0 (1970-01-01) was a Thursday, so
+     * floorMod(day + 3, 7) is 0 for Monday through 6 for Sunday.
+     */
+    private static boolean isWeekendNight(int epochDay) {
+        int dayOfWeek = Math.floorMod(epochDay + 3, 7);
+        return dayOfWeek == 4 || dayOfWeek == 5;
+    }
+
+    /**
+     * Nights [startDay, endDay) as epoch days, priced at nightlyRate
+     */
+    public record Season(int startDay, int endDay, long nightlyRate) {
+    }
+
+    /**
+     * basisPoints off the nightly total for stays of at least minNights
+     */
+    public record StayDiscount(int minNights, long basisPoints) {
+    }
+
+    /**
+     * Pricing of one listing in minor units. weekendRate is null when the listing has none;
+     * seasons must be sorted by startDay.
+     */
+    public record PricingPlan(String currency, int fractionDigits, long nightlyRate, Long weekendRate,
+                              List<Season> seasons, List<StayDiscount> discounts,
+                              long cleaningFee, long serviceFeeBasisPoints) {
+    }
+
+    /**
+     * A priced stay in minor units: total = accommodation - discount + cleaningFee + serviceFee
+     */
+    public record Quote(int nights, long accommodation, long discount, long cleaningFee, long serviceFee, long total) {
+    }
 }
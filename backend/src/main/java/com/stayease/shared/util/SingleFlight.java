@@ -0,0 +1,83 @@
+package com.stayease.shared.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader, callers
+ * arriving while it is in flight wait for and share its result (or exception).
+ * Nothing is cached once the load completes.
+ *
+ * Metrics, tagged with the loader name: singleflight.calls (outcome=load|coalesced),
+ * singleflight.inflight and singleflight.coalesced.ratio.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter loads;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.loads = Counter.builder("singleflight.calls")
+                .tag("name", name)
+                .tag("outcome", "load")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("singleflight.calls")
+                .tag("name", name)
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("singleflight.inflight", inFlight, ConcurrentHashMap::size)
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("singleflight.coalesced.ratio", this, SingleFlight::coalescedRatio)
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        loads.increment();
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private double coalescedRatio() {
+        double total = loads.count() + coalesced.count();
+        return total == 0 ? 0.0 : coalesced.count() / total;
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.stayease.shared.util;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared by hashing keys onto stripes. Keys on different stripes
+ * never contend, so throughput grows with the stripe count while memory stays constant;
+ * two keys on the same stripe merely serialize.
+ */
+public class StripedLock {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedLock(int minStripes) {
+        int size = Integer.highestOneBit(Math.max(1, minStripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public ReentrantLock lockFor(long key) {
+        // Spread the bits so sequential ids do not cluster on neighbouring stripes
+        long h = key * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h ^ (h >>> 32)) & mask];
+    }
+
+    public int size() {
+        return stripes.length;
+    }
+}
@@ -0,0 +1,15 @@
+--liquibase formatted sql
+
+--changeset stayease:0012-add-listing-geo-cell
+-- 0.1 degree grid cell, see GeoUtil: row * 3601 + column
+ALTER TABLE listing ADD COLUMN geo_cell BIGINT;
+
+UPDATE listing
+SET geo_cell = FLOOR((latitude + 90) * 10) * 3601 + FLOOR((longitude + 180) * 10)
+WHERE latitude IS NOT NULL AND longitude IS NOT NULL;
+--rollback ALTER TABLE listing DROP COLUMN geo_cell;
+
+--changeset stayease:0012-create-listing-geo-indexes
+CREATE INDEX idx_listing_geo_cell ON listing(geo_cell) WHERE status = 'ACTIVE' AND is_active = TRUE;
+CREATE INDEX idx_listing_lat_lng ON listing(latitude, longitude) WHERE status = 'ACTIVE' AND is_active = TRUE;
+--rollback DROP INDEX IF EXISTS idx_listing_geo_cell, idx_listing_lat_lng;
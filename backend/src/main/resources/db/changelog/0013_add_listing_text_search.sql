@@ -0,0 +1,24 @@
+--liquibase formatted sql
+
+--changeset stayease:0013-enable-pg-trgm
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+--rollback DROP EXTENSION IF EXISTS pg_trgm;
+
+--changeset stayease:0013-add-listing-search-columns
+-- Lower-cased text for trigram (typo tolerant) matching
+ALTER TABLE listing ADD COLUMN search_text TEXT GENERATED ALWAYS AS (
+    lower(coalesce(title, '') || ' ' || coalesce(location, '') || ' ' || coalesce(city, '') || ' ' || coalesce(country, ''))
+) STORED;
+
+-- Weighted lexemes for ranked full-text matching: title > city/country > location
+ALTER TABLE listing ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(city, '') || ' ' || coalesce(country, '')), 'B') ||
+    setweight(to_tsvector('simple', coalesce(location, '')), 'C')
+) STORED;
+--rollback ALTER TABLE listing DROP COLUMN search_vector, DROP COLUMN search_text;
+
+--changeset stayease:0013-create-listing-search-indexes
+CREATE INDEX idx_listing_search_vector ON listing USING GIN (search_vector);
+CREATE INDEX idx_listing_search_text_trgm ON listing USING GIN (search_text gin_trgm_ops);
+--rollback DROP INDEX IF EXISTS idx_listing_search_vector, idx_listing_search_text_trgm;
@@ -0,0 +1,12 @@
+--liquibase formatted sql
+
+--changeset stayease:0014-create-listing-keyset-indexes
+-- (sort key, id) indexes for keyset pagination over active listings, see ListingSort.
+-- Rating and views are sorted as COALESCE(..., 0), so those indexes use the same expression.
+CREATE INDEX idx_listing_active_created_id ON listing(created_at DESC, id DESC) WHERE status = 'ACTIVE' AND is_active = TRUE;
+CREATE INDEX idx_listing_active_price_id ON listing(price, id) WHERE status = 'ACTIVE' AND is_active = TRUE;
+CREATE INDEX idx_listing_active_rating_id ON listing((COALESCE(average_rating, 0)) DESC, id DESC) WHERE status = 'ACTIVE' AND is_active = TRUE;
+CREATE INDEX idx_listing_active_views_id ON listing((COALESCE(view_count, 0)) DESC, id DESC) WHERE status = 'ACTIVE' AND is_active = TRUE;
+CREATE INDEX idx_listing_category_created_id ON listing(category, created_at DESC, id DESC);
+CREATE INDEX idx_listing_landlord_created_id ON listing(landlord_public_id, created_at DESC, id DESC);
+--rollback DROP INDEX IF EXISTS idx_listing_active_created_id, idx_listing_active_price_id, idx_listing_active_rating_id, idx_listing_active_views_id, idx_listing_category_created_id, idx_listing_landlord_created_id;
@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset stayease:0015-create-listing-image-primary-index
+-- Serves the primary image lookup of listing cards (ListingRepository.CARD_SELECT) as an index-only scan
+CREATE INDEX idx_listing_image_primary ON listing_image(listing_id, url) WHERE is_primary = TRUE;
+--rollback DROP INDEX IF EXISTS idx_listing_image_primary;
@@ -0,0 +1,42 @@
+--liquibase formatted sql
+
+--changeset stayease:0016-create-amenity-tables
+-- Dictionary-encoded amenities: one row per distinct amenity name, referenced by id from listing_amenity
+CREATE TABLE amenity (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    code VARCHAR(100) NOT NULL,
+    CONSTRAINT uk_amenity_code UNIQUE (code)
+);
+
+-- Primary key leads with amenity_id so "listings having amenity X" is an index range scan
+CREATE TABLE listing_amenity (
+    amenity_id INTEGER NOT NULL,
+    listing_id BIGINT NOT NULL,
+    CONSTRAINT pk_listing_amenity PRIMARY KEY (amenity_id, listing_id),
+    CONSTRAINT fk_listing_amenity_amenity FOREIGN KEY (amenity_id) REFERENCES amenity(id),
+    CONSTRAINT fk_listing_amenity_listing FOREIGN KEY (listing_id) REFERENCES listing(id) ON DELETE CASCADE
+);
+CREATE INDEX idx_listing_amenity_listing ON listing_amenity(listing_id);
+--rollback DROP TABLE IF EXISTS listing_amenity;
+--rollback DROP TABLE IF EXISTS amenity;
+
+--changeset stayease:0016-backfill-listing-amenities
+INSERT INTO amenity (code)
+SELECT DISTINCT TRIM(e.value)
+FROM listing l CROSS JOIN LATERAL jsonb_array_elements_text(l.amenities::jsonb) AS e(value)
+WHERE l.amenities IS NOT NULL AND TRIM(l.amenities) <> '' AND TRIM(e.value) <> ''
+ON CONFLICT (code) DO NOTHING;
+
+INSERT INTO listing_amenity (amenity_id, listing_id)
+SELECT DISTINCT a.id, l.id
+FROM listing l
+CROSS JOIN LATERAL jsonb_array_elements_text(l.amenities::jsonb) AS e(value)
+JOIN amenity a ON a.code = TRIM(e.value)
+WHERE l.amenities IS NOT NULL AND TRIM(l.amenities) <> ''
+ON CONFLICT DO NOTHING;
+--rollback DELETE FROM listing_amenity;
+--rollback DELETE FROM amenity;
+
+--changeset stayease:0016-drop-listing-amenities-json
+ALTER TABLE listing DROP COLUMN amenities;
+--rollback ALTER TABLE listing ADD COLUMN amenities TEXT;
@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+--changeset stayease:0017-create-user-browse-indexes
+-- Keyset order of admin user browsing and export, see UserBrowseRepository
+CREATE INDEX idx_user_created_id ON "user"(created_at DESC, id DESC);
+-- Role filter: the primary key (user_id, authority_name) cannot be searched by authority first
+CREATE INDEX idx_user_authority_name_user ON user_authority(authority_name, user_id);
+--rollback DROP INDEX IF EXISTS idx_user_created_id, idx_user_authority_name_user;
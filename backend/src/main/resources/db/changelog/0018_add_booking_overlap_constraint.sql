@@ -0,0 +1,14 @@
+--liquibase formatted sql
+
+--changeset stayease:0018-create-btree-gist-extension
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+--rollback DROP EXTENSION IF EXISTS btree_gist;
+
+--changeset stayease:0018-create-booking-overlap-constraint
+-- No two bookings that block dates (see BookingStatus.blocksDates) may overlap on a listing.
+-- Stays are half-open: the check-out day can be the next guest's check-in day.
+ALTER TABLE booking ADD CONSTRAINT ck_booking_dates CHECK (end_date > start_date);
+ALTER TABLE booking ADD CONSTRAINT ex_booking_listing_dates
+    EXCLUDE USING gist (listing_id WITH =, daterange(start_date, end_date, '[)') WITH &&)
+    WHERE (status IN ('PENDING', 'CONFIRMED'));
+--rollback ALTER TABLE booking DROP CONSTRAINT IF EXISTS ex_booking_listing_dates, DROP CONSTRAINT IF EXISTS ck_booking_dates;
@@ -0,0 +1,26 @@
+--liquibase formatted sql
+
+--changeset stayease:0019-create-listing-price-rule-table
+-- Nightly price overrides and stay discounts on top of listing.price, see PriceUtil.
+-- WEEKEND: nightly_price for Friday and Saturday nights
+-- SEASON: nightly_price for nights in [start_date, end_date); wins over WEEKEND
+-- LENGTH_OF_STAY: discount_percentage off the nightly total for stays of at least min_nights
+CREATE TABLE listing_price_rule (
+    id BIGSERIAL PRIMARY KEY,
+    listing_id BIGINT NOT NULL REFERENCES listing(id) ON DELETE CASCADE,
+    rule_type VARCHAR(20) NOT NULL,
+    start_date DATE,
+    end_date DATE,
+    nightly_price DECIMAL(12,2),
+    min_nights INT,
+    discount_percentage DECIMAL(5,2),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT ck_listing_price_rule_type CHECK (rule_type IN ('WEEKEND', 'SEASON', 'LENGTH_OF_STAY')),
+    CONSTRAINT ck_listing_price_rule_season CHECK (rule_type <> 'SEASON' OR (start_date IS NOT NULL AND end_date > start_date AND nightly_price IS NOT NULL)),
+    CONSTRAINT ck_listing_price_rule_weekend CHECK (rule_type <> 'WEEKEND' OR nightly_price IS NOT NULL),
+    CONSTRAINT ck_listing_price_rule_stay CHECK (rule_type <> 'LENGTH_OF_STAY' OR (min_nights > 1 AND discount_percentage > 0 AND discount_percentage < 100))
+);
+
+CREATE INDEX idx_listing_price_rule_listing ON listing_price_rule(listing_id);
+CREATE SEQUENCE listing_price_rule_seq START WITH 1 INCREMENT BY 50;
+--rollback DROP SEQUENCE IF EXISTS listing_price_rule_seq; DROP TABLE IF EXISTS listing_price_rule;
@@ -0,0 +1,22 @@
+--liquibase formatted sql
+
+--changeset stayease:0020-create-idempotency-key-table
+-- Responses of POST requests sent with an Idempotency-Key header, see IdempotencyStore.
+-- scope is the client (user subject or IP) so keys of different clients never collide.
+-- An IN_PROGRESS row is a claim that lapses at expires_at if its request never completes.
+CREATE TABLE idempotency_key (
+    scope VARCHAR(100) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    response_status INT,
+    content_type VARCHAR(255),
+    response_body BYTEA,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_idempotency_key PRIMARY KEY (scope, idempotency_key),
+    CONSTRAINT ck_idempotency_key_status CHECK (status IN ('IN_PROGRESS', 'COMPLETED'))
+);
+
+CREATE INDEX idx_idempotency_key_expires_at ON idempotency_key(expires_at);
+--rollback DROP TABLE IF EXISTS idempotency_key;
@@ -0,0 +1,12 @@
+--liquibase formatted sql
+
+--changeset stayease:0021-add-booking-hold-expires-at
+-- A PENDING booking with hold_expires_at is a checkout hold: it blocks its dates until
+-- payment completes (hold_expires_at is cleared) or the hold expires (status EXPIRED).
+ALTER TABLE booking ADD COLUMN hold_expires_at TIMESTAMP WITH TIME ZONE;
+--rollback ALTER TABLE booking DROP COLUMN hold_expires_at;
+
+--changeset stayease:0021-create-booking-hold-index
+-- Open holds only, read once on startup by BookingHoldScheduler
+CREATE INDEX idx_booking_open_holds ON booking(hold_expires_at) WHERE status = 'PENDING' AND hold_expires_at IS NOT NULL;
+--rollback DROP INDEX IF EXISTS idx_booking_open_holds;
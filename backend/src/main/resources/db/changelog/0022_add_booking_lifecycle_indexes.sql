@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+--changeset stayease:0022-create-booking-lifecycle-indexes
+-- Partial indexes for BookingLifecycleJobs: each job only ever scans the rows it will change
+CREATE INDEX idx_booking_confirmed_end ON booking(end_date) WHERE status = 'CONFIRMED';
+CREATE INDEX idx_booking_requested_start ON booking(start_date) WHERE status = 'PENDING' AND hold_expires_at IS NULL;
+--rollback DROP INDEX IF EXISTS idx_booking_confirmed_end, idx_booking_requested_start;
@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+--changeset stayease:0023-create-booking-availability-index
+-- Serves the "no blocking booking during the stay" anti-join of listing search: per listing
+-- only bookings ending after check-in are read, however long the booking history grows.
+CREATE INDEX idx_booking_blocking_listing_end ON booking(listing_id, end_date) INCLUDE (start_date)
+    WHERE status IN ('PENDING', 'CONFIRMED');
+--rollback DROP INDEX IF EXISTS idx_booking_blocking_listing_end;
@@ -11,4 +11,16 @@
 --include file:db/changelog/0008_create_chat_tables.sql
 --include file:db/changelog/0009_create_notification_tables.sql
 --include file:db/changelog/0010_create_admin_tables.sql
---include file:db/changelog/0011_add_indexes.sql
\ No newline at end of file
+--include file:db/changelog/0011_add_indexes.sql
+--include file:db/changelog/0012_add_listing_geo_cell.sql
+--include file:db/changelog/0013_add_listing_text_search.sql
+--include file:db/changelog/0014_add_listing_keyset_indexes.sql
+--include file:db/changelog/0015_add_listing_image_primary_index.sql
+--include file:db/changelog/0016_normalize_listing_amenities.sql
+--include file:db/changelog/0017_add_user_browse_indexes.sql
+--include file:db/changelog/0018_add_booking_overlap_constraint.sql
+--include file:db/changelog/0019_create_listing_price_rules.sql
+--include file:db/changelog/0020_create_idempotency_key_table.sql
+--include file:db/changelog/0021_add_booking_hold_expiry.sql
+--include file:db/changelog/0022_add_booking_lifecycle_indexes.sql
+--include file:db/changelog/0023_add_booking_availability_index.sql
\ No newline at end of file
@@ -1,5 +1,291 @@
 package com.stayease.domain.booking;
 
-public class BookingServiceTest {
-    
+import com.stayease.domain.booking.dto.CreateBookingDTO;
+import com.stayease.domain.booking.entity.Booking;
+import com.stayease.domain.booking.repository.BookingRepository;
+import com.stayease.domain.booking.service.BookingHoldScheduler;
+import com.stayease.domain.booking.service.BookingService;
+import com.stayease.domain.listing.entity.Listing;
+import com.stayease.domain.listing.repository.ListingPriceRuleRepository;
+import com.stayease.domain.listing.repository.ListingRepository;
+import com.stayease.domain.listing.service.ListingAvailabilityIndex;
+import com.stayease.domain.listing.service.ListingPricingService;
+import com.stayease.domain.listing.service.ListingQuoteCache;
+import com.stayease.exception.ConflictException;
+import com.stayease.security.SecurityUtils;
+import com.stayease.shared.constant.ListingStatus;
+import com.stayease.shared.mapper.BookingMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stress tests for booking creation. The repository fake checks and inserts in two
+ * non-atomic steps, like a real overlap query followed by an insert, so without the
+ * per-listing lock concurrent requests would double-book. With exclusionConstraint set the
+ * insert also enforces ex_booking_listing_dates, as the database does for other nodes.
+ */
+class BookingServiceTest {
+
+    private static final int THREADS = 64;
+
+    private final Map<Long, Listing> listingsById = new ConcurrentHashMap<>();
+    private final Queue<Booking> savedBookings = new ConcurrentLinkedQueue<>();
+    private volatile boolean exclusionConstraint;
+
+    private BookingRepository bookingRepository;
+    private ListingRepository listingRepository;
+    private SecurityUtils securityUtils;
+    private PlatformTransactionManager transactionManager;
+    private ListingAvailabilityIndex availabilityIndex;
+    private BookingService bookingService;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        listingRepository = mock(ListingRepository.class);
+        securityUtils = mock(SecurityUtils.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(securityUtils.getCurrentUserPublicId()).thenAnswer(invocation -> UUID.randomUUID());
+        when(listingRepository.findByPublicId(any())).thenAnswer(invocation -> listingsById.values().stream()
+                .filter(listing -> listing.getPublicId().equals(invocation.getArgument(0)))
+                .findFirst());
+
+        when(bookingRepository.existsOverlapping(anyLong(), any(), any())).thenAnswer(invocation -> {
+            Long listingId = invocation.getArgument(0);
+            LocalDate start = invocation.getArgument(1);
+            LocalDate end = invocation.getArgument(2);
+            boolean overlapping = savedBookings.stream().anyMatch(booking ->
+                    booking.getListing().getId().equals(listingId)
+                            && booking.getStartDate().isBefore(end)
+                            && booking.getEndDate().isAfter(start));
+            // Widen the window between the check and the insert
+            Thread.yield();
+            return overlapping;
+        });
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            synchronized (savedBookings) {
+                if (exclusionConstraint && overlapsSaved(booking)) {
+                    throw new DataIntegrityViolationException("conflicting key value violates exclusion constraint "
+                            + "\"ex_booking_listing_dates\"");
+                }
+                booking.setPublicId(UUID.randomUUID());
+                savedBookings.add(booking);
+            }
+            return booking;
+        });
+
+        availabilityIndex = new ListingAvailabilityIndex(mock(JdbcTemplate.class));
+        bookingService = newNode();
+    }
+
+    /**
+     * A BookingService with its own listing locks, as on a separate node sharing the database
+     */
+    private BookingService newNode() {
+        ListingPricingService pricingService = new ListingPricingService(listingRepository,
+                mock(ListingPriceRuleRepository.class), new ListingQuoteCache(100, 60), securityUtils);
+        return new BookingService(bookingRepository, listingRepository, new BookingMapper(),
+                securityUtils, availabilityIndex, pricingService, mock(BookingHoldScheduler.class), transactionManager);
+    }
+
+    @Test
+    void identicalConcurrentRequestsCreateExactlyOneBooking() throws Exception {
+        Listing listing = addListing(1L);
+        LocalDate start = LocalDate.now().plusDays(10);
+
+        List<CreateBookingDTO> requests = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            requests.add(request(listing, start, start.plusDays(3)));
+        }
+
+        Outcome outcome = fire(requests);
+
+        assertThat(outcome.unexpected()).isZero();
+        assertThat(outcome.created()).isEqualTo(1);
+        assertThat(outcome.conflicts()).isEqualTo(1999);
+        assertThat(savedBookings).hasSize(1);
+    }
+
+    @Test
+    void randomOverlappingRequestsNeverDoubleBook() throws Exception {
+        List<Listing> listings = List.of(addListing(1L), addListing(2L), addListing(3L));
+        Random random = new Random(42);
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+
+        List<CreateBookingDTO> requests = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Listing listing = listings.get(random.nextInt(listings.size()));
+            LocalDate start = firstDay.plusDays(random.nextInt(90));
+            requests.add(request(listing, start, start.plusDays(1 + random.nextInt(7))));
+        }
+
+        Outcome outcome = fire(requests);
+
+        assertThat(outcome.unexpected()).isZero();
+        assertThat(outcome.created() + outcome.conflicts()).isEqualTo(requests.size());
+        assertThat(outcome.created()).isEqualTo(savedBookings.size()).isPositive();
+        assertNoOverlaps();
+    }
+
+    @Test
+    void overlapRejectedByTheExclusionConstraintIsAConflict() {
+        Listing listing = addListing(1L);
+        LocalDate start = LocalDate.now().plusDays(5);
+        doThrow(new DataIntegrityViolationException("ex_booking_listing_dates"))
+                .when(bookingRepository).saveAndFlush(any(Booking.class));
+
+        assertThatThrownBy(() -> bookingService.createBooking(request(listing, start, start.plusDays(2))))
+                .isInstanceOf(ConflictException.class);
+        assertThat(savedBookings).isEmpty();
+        // A lost race must not block the dates in this node's index
+        assertThat(availabilityIndex.getCalendar(listing.getId(), start, start.plusDays(2)).bookedRanges()).isEmpty();
+    }
+
+    @Test
+    void concurrentNodesNeverDoubleBook() throws Exception {
+        exclusionConstraint = true;
+        List<BookingService> nodes = List.of(bookingService, newNode(), newNode());
+        Listing listing = addListing(1L);
+        Random random = new Random(7);
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+
+        List<CreateBookingDTO> requests = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            LocalDate start = firstDay.plusDays(random.nextInt(30));
+            requests.add(request(listing, start, start.plusDays(1 + random.nextInt(4))));
+        }
+
+        Outcome outcome = fire(requests, nodes);
+
+        assertThat(outcome.unexpected()).isZero();
+        assertThat(outcome.created() + outcome.conflicts()).isEqualTo(requests.size());
+        assertThat(outcome.created()).isEqualTo(savedBookings.size()).isPositive();
+        assertNoOverlaps();
+    }
+
+    @Test
+    void staleIndexEntryDoesNotRejectAFreeStay() {
+        Listing listing = addListing(1L);
+        LocalDate start = LocalDate.now().plusDays(3);
+        // Cancelled on another node; this node's index has not caught up yet
+        availabilityIndex.addBooking(listing.getId(), start, start.plusDays(2));
+
+        bookingService.createBooking(request(listing, start, start.plusDays(2)));
+
+        assertThat(savedBookings).hasSize(1);
+    }
+
+    private Outcome fire(List<CreateBookingDTO> requests) throws Exception {
+        return fire(requests, List.of(bookingService));
+    }
+
+    /**
+     * Send all requests at once from THREADS threads, spreading them over the given nodes
+     */
+    private Outcome fire(List<CreateBookingDTO> requests, List<BookingService> nodes) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        AtomicInteger unexpected = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CreateBookingDTO request = requests.get(i);
+            BookingService node = nodes.get(i % nodes.size());
+            futures.add(executor.submit(() -> {
+                startSignal.await();
+                try {
+                    node.createBooking(request);
+                    created.incrementAndGet();
+                } catch (ConflictException e) {
+                    conflicts.incrementAndGet();
+                } catch (RuntimeException e) {
+                    unexpected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        startSignal.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        return new Outcome(created.get(), conflicts.get(), unexpected.get());
+    }
+
+    private boolean overlapsSaved(Booking candidate) {
+        return savedBookings.stream().anyMatch(booking ->
+                booking.getListing().getId().equals(candidate.getListing().getId())
+                        && booking.getStartDate().isBefore(candidate.getEndDate())
+                        && booking.getEndDate().isAfter(candidate.getStartDate()));
+    }
+
+    private void assertNoOverlaps() {
+        Map<Long, List<Booking>> byListing = new HashMap<>();
+        savedBookings.forEach(booking ->
+                byListing.computeIfAbsent(booking.getListing().getId(), id -> new ArrayList<>()).add(booking));
+
+        byListing.forEach((listingId, bookings) -> {
+            bookings.sort(Comparator.comparing(Booking::getStartDate));
+            for (int i = 1; i < bookings.size(); i++) {
+                assertThat(bookings.get(i).getStartDate())
+                        .as("booking %d of listing %d starts before the previous one ends", i, listingId)
+                        .isAfterOrEqualTo(bookings.get(i - 1).getEndDate());
+            }
+        });
+    }
+
+    private Listing addListing(Long id) {
+        Listing listing = Listing.builder()
+                .id(id)
+                .publicId(UUID.randomUUID())
+                .landlordPublicId(UUID.randomUUID())
+                .title("Listing " + id)
+                .status(ListingStatus.ACTIVE)
+                .isActive(true)
+                .guests(4)
+                .price(BigDecimal.valueOf(100))
+                .currency("USD")
+                .minNights(1)
+                .maxNights(365)
+                .instantBook(true)
+                .build();
+        listingsById.put(id, listing);
+        return listing;
+    }
+
+    private static CreateBookingDTO request(Listing listing, LocalDate start, LocalDate end) {
+        return CreateBookingDTO.builder()
+                .listingId(listing.getPublicId())
+                .startDate(start)
+                .endDate(end)
+                .nbOfTravelers(2)
+                .build();
+    }
+
+    private record Outcome(int created, int conflicts, int unexpected) {
+    }
 }